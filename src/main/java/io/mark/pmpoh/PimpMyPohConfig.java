@@ -1,9 +1,11 @@
 package io.mark.pmpoh;
 
+import io.mark.pmpoh.objects.ObjectType;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.Keybind;
+import net.runelite.client.config.Range;
 
 import java.awt.event.KeyEvent;
 
@@ -11,6 +13,7 @@ import java.awt.event.KeyEvent;
 public interface PimpMyPohConfig extends Config {
 
     String CONFIG_GROUP = "pmpoh";
+    String MODEL_CACHE_SIZE_KEY = "modelCacheSize";
 
     @ConfigItem(
         keyName = "editModeKeybind",
@@ -31,4 +34,18 @@ public interface PimpMyPohConfig extends Config {
     {
         return new Keybind(KeyEvent.VK_T, 0);
     }
-}
\ No newline at end of file
+
+    @Range(
+        min = 4,
+        max = 512
+    )
+    @ConfigItem(
+        keyName = MODEL_CACHE_SIZE_KEY,
+        name = "Model Cache Size (MB)",
+        description = "Memory to keep loaded object models in. Raise it if large houses reload models often"
+    )
+    default int modelCacheSize()
+    {
+        return ObjectType.DEFAULT_MODEL_CACHE_MB;
+    }
+}
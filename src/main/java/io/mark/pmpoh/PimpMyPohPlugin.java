@@ -27,14 +27,18 @@ package io.mark.pmpoh;
 
 import com.google.inject.Provides;
 import io.mark.pmpoh.objects.ObjectManager;
+import io.mark.pmpoh.objects.ObjectType;
 import io.mark.pmpoh.overlay.EditModeOverlay;
 import io.mark.pmpoh.overlay.RoomDeveloperOverlay;
+import io.mark.pmpoh.service.ModelPrefetchService;
+import io.mark.pmpoh.service.ObjectSearchService;
 import io.mark.pmpoh.service.ObjectSpawnService;
 import io.mark.pmpoh.service.RoomManagementService;
 import io.mark.pmpoh.tooling.impl.ObjectAction;
 import io.mark.pmpoh.poh.RoomPosition;
 import io.mark.pmpoh.util.UsableChunkCache;
 import io.mark.pmpoh.ui.EditorPanel;
+import io.mark.pmpoh.ui.ObjectsListPanel;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -44,6 +48,7 @@ import net.runelite.api.events.*;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.input.KeyManager;
 import net.runelite.client.input.MouseManager;
 import net.runelite.client.plugins.Plugin;
@@ -114,6 +119,12 @@ public class PimpMyPohPlugin extends Plugin {
     @Inject
     private ObjectSpawnService objectSpawnService;
 
+    @Inject
+    private ModelPrefetchService modelPrefetchService;
+
+    @Inject
+    private ObjectSearchService objectSearchService;
+
     @Inject
     private PluginManager pluginManager;
 
@@ -149,6 +160,7 @@ public class PimpMyPohPlugin extends Plugin {
             });
         });
         
+        ObjectType.setModelCacheBudget(config.modelCacheSize());
         objectManager.init();
         panel.setup();
         mouseManager.registerMouseListener(objectAction);
@@ -168,11 +180,16 @@ public class PimpMyPohPlugin extends Plugin {
     @Override
     public void shutDown() {
         clientToolbar.removeNavigation(button);
+        modelPrefetchService.cancel();
+        objectSearchService.shutDown();
         objectManager.clean();
+        log.debug("Model cache at shutdown: {}", ObjectType.getModelCacheStats());
+        ObjectType.clearModelCache();
         overlayManager.remove(roomDeveloperOverlay);
         overlayManager.remove(editModeOverlay);
         mouseManager.unregisterMouseListener(objectAction);
         keyManager.unregisterKeyListener(objectAction);
+        ObjectsListPanel.flushPendingSaves();
     }
 
     @Subscribe
@@ -185,6 +202,14 @@ public class PimpMyPohPlugin extends Plugin {
         });
     }
 
+    @Subscribe
+    private void onConfigChanged(ConfigChanged event) {
+        if (PimpMyPohConfig.CONFIG_GROUP.equals(event.getGroup())
+            && PimpMyPohConfig.MODEL_CACHE_SIZE_KEY.equals(event.getKey())) {
+            ObjectType.setModelCacheBudget(config.modelCacheSize());
+        }
+    }
+
     @Subscribe
     public void onWorldViewLoaded(WorldViewLoaded worldViewLoaded) {
         boolean isInPoh = isInPoh();
@@ -208,6 +233,7 @@ public class PimpMyPohPlugin extends Plugin {
 
             loadHouseFiles();
         } else {
+            modelPrefetchService.cancel();
             UsableChunkCache.getInstance().clear();
             // Update toolbox button state
             SwingUtilities.invokeLater(() -> {
@@ -224,10 +250,13 @@ public class PimpMyPohPlugin extends Plugin {
             roomManagementService.loadRooms(username);
             log.info("Loaded {} rooms from save file", roomManagementService.getRoomsByIndex().size());
             
-            // Load objects after a short delay to ensure everything is ready
-            clientThread.invokeLater(() -> {
+            // Build the house's models over the next few ticks, then spawn them without a hitch
+            modelPrefetchService.prefetch(roomManagementService.getRoomsByIndex(), () -> {
                 int spawned = objectSpawnService.loadObjectsFromRooms(roomManagementService.getRoomsByIndex());
                 log.info("Spawned {} objects from save file", spawned);
+                if (isDevMode()) {
+                    log.info("Model cache: {}", ObjectType.getModelCacheStats());
+                }
             });
         }
         
@@ -298,8 +327,8 @@ public class PimpMyPohPlugin extends Plugin {
      * Process the current batch of rooms
      */
     private void processRoomBatch() {
-        List<Integer> roomsToCleanup = roomManagementService.processRoomBatch();
-        objectSpawnService.removeRoomObjects(roomsToCleanup);
+        // Objects of moved rooms are relocated and those of removed rooms deleted by the respawn itself
+        roomManagementService.processRoomBatch();
         objectSpawnService.loadObjectsFromRooms(roomManagementService.getRoomsByIndex());
     }
 
@@ -0,0 +1,58 @@
+package io.mark.pmpoh.objects;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of catalog entries backed by an array of catalog indices. get() and subList() are
+ * constant time, so paging through a result never copies or re-sorts it.
+ */
+public final class CatalogEntryList extends AbstractList<Map.Entry<String, ObjectType>> implements RandomAccess {
+
+    private final ObjectCatalog catalog;
+    private final int[] indices;
+
+    /**
+     * @param indices Catalog indices in list order; the array must not be modified afterwards
+     */
+    public CatalogEntryList(ObjectCatalog catalog, int[] indices) {
+        this.catalog = catalog;
+        this.indices = indices;
+    }
+
+    /**
+     * Every entry of the catalog ordered by gameval
+     */
+    static CatalogEntryList sortedByGameval(ObjectCatalog catalog) {
+        Integer[] order = new Integer[catalog.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> catalog.getGameval(a).compareTo(catalog.getGameval(b)));
+
+        int[] indices = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            indices[i] = order[i];
+        }
+        return new CatalogEntryList(catalog, indices);
+    }
+
+    /**
+     * Catalog index of the entry at the given list position
+     */
+    public int indexAt(int position) {
+        return indices[position];
+    }
+
+    @Override
+    public Map.Entry<String, ObjectType> get(int position) {
+        return catalog.entry(indices[position]);
+    }
+
+    @Override
+    public int size() {
+        return indices.length;
+    }
+}
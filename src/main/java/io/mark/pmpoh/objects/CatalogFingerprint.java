@@ -0,0 +1,107 @@
+package io.mark.pmpoh.objects;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Last verified SHA-256 of objects.json, kept in a sidecar file together with the size and mtime it
+ * was computed for. As long as the file's size and mtime still match, the stored hash is reused
+ * instead of streaming the whole file through a digest again.
+ */
+@Slf4j
+final class CatalogFingerprint {
+
+    private static final String SIDECAR_SUFFIX = ".sha256";
+    private static final Gson GSON = new Gson();
+
+    private String sha256;
+    private long size;
+    private long lastModified;
+
+    private CatalogFingerprint() {
+    }
+
+    /**
+     * SHA-256 of the file, read from the sidecar when the file is unchanged and recomputed otherwise.
+     * Callers are serialized, so concurrent callers hash the file once and the rest read the new sidecar.
+     * @return The hex digest, or null if the file could not be hashed
+     */
+    static synchronized String sha256(File file) {
+        CatalogFingerprint fingerprint = read(file);
+        if (fingerprint != null && fingerprint.matches(file)) {
+            return fingerprint.sha256;
+        }
+
+        String sha256 = ObjectCatalogUpdater.sha256(file);
+        if (sha256 != null) {
+            record(file, sha256);
+        }
+        return sha256;
+    }
+
+    /**
+     * Store a hash that was verified for the file's current contents
+     */
+    static synchronized void record(File file, String sha256) {
+        CatalogFingerprint fingerprint = new CatalogFingerprint();
+        fingerprint.sha256 = sha256.toLowerCase();
+        fingerprint.size = file.length();
+        fingerprint.lastModified = file.lastModified();
+
+        Path sidecar = sidecarFile(file).toPath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                GSON.toJson(fingerprint, writer);
+            }
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write fingerprint for {}", file.getName(), e);
+            deleteQuietly(temp);
+        }
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.debug("Failed to delete {}", temp, e);
+        }
+    }
+
+    private boolean matches(File file) {
+        return sha256 != null && size == file.length() && lastModified == file.lastModified();
+    }
+
+    private static CatalogFingerprint read(File file) {
+        File sidecar = sidecarFile(file);
+        if (!sidecar.isFile()) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(sidecar.toPath(), StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, CatalogFingerprint.class);
+        } catch (IOException | JsonParseException e) {
+            log.warn("Ignoring unreadable fingerprint {}", sidecar.getName(), e);
+            return null;
+        }
+    }
+
+    private static File sidecarFile(File file) {
+        return new File(file.getParentFile(), file.getName() + SIDECAR_SUFFIX);
+    }
+}
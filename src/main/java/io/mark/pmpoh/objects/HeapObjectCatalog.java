@@ -0,0 +1,84 @@
+package io.mark.pmpoh.objects;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Object catalog fully decoded onto the heap, used when the binary catalog cannot be written or mapped
+ */
+public class HeapObjectCatalog implements ObjectCatalog {
+
+    private final String[] gamevals;
+    private final ObjectType[] objects;
+    private final Map<String, Integer> indexByGameval;
+    private final ObjectIdIndex indexById;
+    private final CatalogEntryList sortedEntries;
+
+    public HeapObjectCatalog(Map<String, ObjectType> objectsByGameval) {
+        int count = objectsByGameval.size();
+        gamevals = new String[count];
+        objects = new ObjectType[count];
+        indexByGameval = new HashMap<>(count * 2);
+
+        int[] ids = new int[count];
+        int index = 0;
+        for (Map.Entry<String, ObjectType> entry : objectsByGameval.entrySet()) {
+            gamevals[index] = entry.getKey();
+            objects[index] = entry.getValue();
+            ids[index] = entry.getValue().id;
+            indexByGameval.put(entry.getKey(), index);
+            index++;
+        }
+        indexById = new ObjectIdIndex(ids);
+        sortedEntries = CatalogEntryList.sortedByGameval(this);
+    }
+
+    @Override
+    public int size() {
+        return objects.length;
+    }
+
+    @Override
+    public String getGameval(int index) {
+        return gamevals[index];
+    }
+
+    @Override
+    public ObjectType get(int index) {
+        return objects[index];
+    }
+
+    @Override
+    public ObjectType getByGameval(String gameval) {
+        Integer index = indexByGameval.get(gameval);
+        return index != null ? objects[index] : null;
+    }
+
+    @Override
+    public int indexOf(String gameval) {
+        Integer index = indexByGameval.get(gameval);
+        return index != null ? index : -1;
+    }
+
+    @Override
+    public int[] getObjectTypes(int index) {
+        return objects[index].objectTypes;
+    }
+
+    @Override
+    public ObjectType getById(int id) {
+        int index = indexById.indexOf(id);
+        return index >= 0 ? objects[index] : null;
+    }
+
+    @Override
+    public Map.Entry<String, ObjectType> entry(int index) {
+        return new AbstractMap.SimpleImmutableEntry<>(gamevals[index], objects[index]);
+    }
+
+    @Override
+    public CatalogEntryList sortedEntries() {
+        return sortedEntries;
+    }
+}
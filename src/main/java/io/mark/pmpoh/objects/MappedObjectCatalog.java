@@ -0,0 +1,240 @@
+package io.mark.pmpoh.objects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.mark.pmpoh.objects.ObjectCatalogFile.*;
+
+/**
+ * Object catalog backed by a memory-mapped {@link ObjectCatalogFile}.
+ * Only the gameval index is kept on the heap; each {@link ObjectType} is decoded the first time it is
+ * requested and kept in a small direct-mapped cache, so reads never take a lock.
+ */
+public class MappedObjectCatalog implements ObjectCatalog {
+
+    private static final int DECODED_CACHE_SLOTS = 1024; // power of two
+
+    private final ByteBuffer buffer;
+    private final IntBuffer intPool;
+    private final int count;
+    private final int stringTableOffset;
+    private final String[] gamevals;
+    private final Map<String, Integer> indexByGameval;
+    private final ObjectIdIndex indexById;
+    private final CatalogEntryList sortedEntries;
+
+    // Slot index & (slots - 1); a slot holds whichever object was decoded there last
+    private final AtomicReferenceArray<ObjectType> decodedObjects = new AtomicReferenceArray<>(DECODED_CACHE_SLOTS);
+
+    /**
+     * @throws IOException If a record's name or arrays point outside the string table or int pool
+     */
+    MappedObjectCatalog(ByteBuffer buffer, int count, int stringTableOffset, int intPoolOffset) throws IOException {
+        this.buffer = buffer;
+        this.count = count;
+        this.stringTableOffset = stringTableOffset;
+        this.intPool = slice(buffer, intPoolOffset, buffer.capacity() - intPoolOffset).asIntBuffer();
+
+        gamevals = new String[count];
+        indexByGameval = new HashMap<>(count * 2);
+        int[] ids = new int[count];
+        int stringTableSize = intPoolOffset - stringTableOffset;
+        for (int i = 0; i < count; i++) {
+            validateRecord(i, stringTableSize);
+            gamevals[i] = readName(i);
+            indexByGameval.put(gamevals[i], i);
+            ids[i] = getId(i);
+        }
+        indexById = new ObjectIdIndex(ids);
+        sortedEntries = CatalogEntryList.sortedByGameval(this);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public String getGameval(int index) {
+        return gamevals[index];
+    }
+
+    /**
+     * Read an object's id straight from its index record without decoding the rest of it
+     */
+    public int getId(int index) {
+        return buffer.getInt(recordOffset(index) + 8);
+    }
+
+    @Override
+    public ObjectType getByGameval(String gameval) {
+        Integer index = indexByGameval.get(gameval);
+        return index != null ? get(index) : null;
+    }
+
+    @Override
+    public int indexOf(String gameval) {
+        Integer index = indexByGameval.get(gameval);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Read an object's shape types straight from the int pool without decoding the rest of it
+     */
+    @Override
+    public int[] getObjectTypes(int index) {
+        return readArray(recordOffset(index) + SCALAR_INTS * 4, ARRAY_TYPES);
+    }
+
+    @Override
+    public ObjectType getById(int id) {
+        int index = indexById.indexOf(id);
+        return index >= 0 ? get(index) : null;
+    }
+
+    @Override
+    public ObjectType get(int index) {
+        int slot = index & (DECODED_CACHE_SLOTS - 1);
+        ObjectType objectType = decodedObjects.get(slot);
+        // Every index has its own gameval String instance, so identity tells which index the slot holds
+        if (objectType == null || objectType.name != gamevals[index]) {
+            objectType = decode(index);
+            decodedObjects.set(slot, objectType);
+        }
+        return objectType;
+    }
+
+    /**
+     * Map entry for the object at the given index; the value is only decoded when first read
+     */
+    @Override
+    public Map.Entry<String, ObjectType> entry(int index) {
+        recordOffset(index);
+        return new LazyEntry(index);
+    }
+
+    @Override
+    public CatalogEntryList sortedEntries() {
+        return sortedEntries;
+    }
+
+    /**
+     * Decode an entry without going through the cache
+     */
+    ObjectType decode(int index) {
+        int record = recordOffset(index);
+        ObjectType objectType = new ObjectType();
+
+        objectType.name = gamevals[index];
+        objectType.id = buffer.getInt(record + 8);
+        objectType.animationId = buffer.getInt(record + 12);
+        objectType.modelSizeX = buffer.getInt(record + 16);
+        objectType.modelSizeY = buffer.getInt(record + 20);
+        objectType.modelSizeZ = buffer.getInt(record + 24);
+        objectType.offsetX = buffer.getInt(record + 28);
+        objectType.offsetY = buffer.getInt(record + 32);
+        objectType.offsetZ = buffer.getInt(record + 36);
+        objectType.ambient = buffer.getInt(record + 40);
+        objectType.contrast = buffer.getInt(record + 44);
+        objectType.rotated = (buffer.getInt(record + 48) & FLAG_ROTATED) != 0;
+
+        int arrays = record + SCALAR_INTS * 4;
+        objectType.objectModels = readArray(arrays, ARRAY_MODELS);
+        objectType.objectTypes = readArray(arrays, ARRAY_TYPES);
+        objectType.recolorToFind = readArray(arrays, ARRAY_RECOLOR_FIND);
+        objectType.recolorToReplace = readArray(arrays, ARRAY_RECOLOR_REPLACE);
+        objectType.retextureToFind = readArray(arrays, ARRAY_RETEXTURE_FIND);
+        objectType.textureToReplace = readArray(arrays, ARRAY_TEXTURE_REPLACE);
+
+        return objectType;
+    }
+
+    private int recordOffset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Object index " + index + " out of range (size " + count + ")");
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /**
+     * Check every offset/length pair of a record, so a damaged file is rejected when it is opened
+     * instead of failing on whichever entry happens to be decoded first
+     */
+    private void validateRecord(int index, int stringTableSize) throws IOException {
+        int record = recordOffset(index);
+        if (!inRange(buffer.getInt(record), buffer.getInt(record + 4), stringTableSize)) {
+            throw new IOException("Corrupt object catalog: name of record " + index + " is out of range");
+        }
+
+        int arrays = record + SCALAR_INTS * 4;
+        for (int slot = 0; slot < ARRAY_COUNT; slot++) {
+            int length = buffer.getInt(arrays + slot * 8 + 4);
+            if (length != NULL_ARRAY && !inRange(buffer.getInt(arrays + slot * 8), length, intPool.capacity())) {
+                throw new IOException("Corrupt object catalog: array " + slot + " of record " + index + " is out of range");
+            }
+        }
+    }
+
+    private static boolean inRange(int offset, int length, int size) {
+        return offset >= 0 && length >= 0 && (long) offset + length <= size;
+    }
+
+    private String readName(int index) {
+        int record = recordOffset(index);
+        int nameOffset = buffer.getInt(record);
+        int nameLength = buffer.getInt(record + 4);
+
+        byte[] name = new byte[nameLength];
+        slice(buffer, stringTableOffset + nameOffset, nameLength).get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private int[] readArray(int arrays, int slot) {
+        int offset = buffer.getInt(arrays + slot * 8);
+        int length = buffer.getInt(arrays + slot * 8 + 4);
+        if (length == NULL_ARRAY) {
+            return null;
+        }
+
+        int[] result = new int[length];
+        IntBuffer view = intPool.duplicate();
+        view.position(offset);
+        view.get(result);
+        return result;
+    }
+
+    private class LazyEntry implements Map.Entry<String, ObjectType> {
+        private final int index;
+
+        private LazyEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return gamevals[index];
+        }
+
+        @Override
+        public ObjectType getValue() {
+            return get(index);
+        }
+
+        @Override
+        public ObjectType setValue(ObjectType value) {
+            throw new UnsupportedOperationException("Mapped catalog entries are read-only");
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+}
@@ -0,0 +1,48 @@
+package io.mark.pmpoh.objects;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the loaded objects. A snapshot never changes after it is published, so it can be
+ * read from any thread without locking; reloading the catalog publishes a new snapshot instead.
+ */
+public interface ObjectCatalog {
+
+    ObjectCatalog EMPTY = new HeapObjectCatalog(Collections.emptyMap());
+
+    int size();
+
+    String getGameval(int index);
+
+    ObjectType get(int index);
+
+    ObjectType getByGameval(String gameval);
+
+    /**
+     * @return The catalog index of the object with the given gameval, or -1 if there is none
+     */
+    int indexOf(String gameval);
+
+    /**
+     * Shape types of the object at the given index (ObjectType.objectTypes), possibly null
+     */
+    int[] getObjectTypes(int index);
+
+    /**
+     * Look up an object by its numeric id
+     * @return The object, or null if no object has that id
+     */
+    ObjectType getById(int id);
+
+    /**
+     * Read-only map entry for the object at the given index
+     */
+    Map.Entry<String, ObjectType> entry(int index);
+
+    /**
+     * All entries ordered by gameval, as an immutable random-access list.
+     * The order is computed once per snapshot.
+     */
+    CatalogEntryList sortedEntries();
+}
@@ -0,0 +1,238 @@
+package io.mark.pmpoh.objects;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact binary form of objects.json, generated after download and memory-mapped on later starts.
+ *
+ * Layout (big endian):
+ * - Header: magic, version, source length, source last-modified, entry count, string table offset, int pool offset
+ * - Index: one fixed-size record per entry (scalar fields plus offset/length pairs into the pools)
+ * - String table: UTF-8 bytes of every gameval
+ * - Int pool: packed int arrays (models, object types, recolors, retextures)
+ */
+@Slf4j
+public final class ObjectCatalogFile {
+
+    private static final int MAGIC = 0x504D4843; // "PMHC"
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    // Array slots stored per record, in this order
+    static final int ARRAY_MODELS = 0;
+    static final int ARRAY_TYPES = 1;
+    static final int ARRAY_RECOLOR_FIND = 2;
+    static final int ARRAY_RECOLOR_REPLACE = 3;
+    static final int ARRAY_RETEXTURE_FIND = 4;
+    static final int ARRAY_TEXTURE_REPLACE = 5;
+    static final int ARRAY_COUNT = 6;
+
+    // name offset, name length, id, animation, size x/y/z, offset x/y/z, ambient, contrast, flags
+    static final int SCALAR_INTS = 13;
+    static final int RECORD_SIZE = (SCALAR_INTS + ARRAY_COUNT * 2) * 4;
+
+    static final int FLAG_ROTATED = 1;
+    static final int NULL_ARRAY = -1;
+
+    private ObjectCatalogFile() {
+    }
+
+    /**
+     * Check whether the catalog file exists and was generated from the given source file
+     */
+    public static boolean isUpToDate(File catalogFile, File sourceFile) {
+        if (!catalogFile.isFile() || !sourceFile.isFile()) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(catalogFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return false;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) != -1) {
+                // keep reading until the header is filled
+            }
+            header.flip();
+
+            return header.remaining() == HEADER_SIZE
+                    && header.getInt() == MAGIC
+                    && header.getInt() == VERSION
+                    && header.getLong() == sourceFile.length()
+                    && header.getLong() == sourceFile.lastModified();
+        } catch (IOException e) {
+            log.warn("Failed to read catalog header from {}", catalogFile.getAbsolutePath(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Write the given object types to a catalog file, tagged with the source file's length and mtime.
+     * The file is written to a temporary sibling first and moved into place.
+     */
+    public static void write(File catalogFile, Collection<ObjectType> objectTypes, File sourceFile) throws IOException {
+        int count = objectTypes.size();
+
+        byte[][] names = new byte[count][];
+        int stringTableSize = 0;
+        long intPoolSize = 0;
+
+        int index = 0;
+        for (ObjectType objectType : objectTypes) {
+            byte[] name = objectType.name != null ? objectType.name.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            names[index++] = name;
+            stringTableSize += name.length;
+            for (int[] array : arraysOf(objectType)) {
+                if (array != null) {
+                    intPoolSize += array.length;
+                }
+            }
+        }
+
+        long totalSize = HEADER_SIZE + (long) count * RECORD_SIZE + stringTableSize + intPoolSize * 4;
+        if (totalSize > Integer.MAX_VALUE) {
+            throw new IOException("Object catalog too large: " + totalSize + " bytes");
+        }
+
+        int stringTableOffset = HEADER_SIZE + count * RECORD_SIZE;
+        int intPoolOffset = stringTableOffset + stringTableSize;
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) totalSize).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(sourceFile.length());
+        buffer.putLong(sourceFile.lastModified());
+        buffer.putInt(count);
+        buffer.putInt(stringTableOffset);
+        buffer.putInt(intPoolOffset);
+
+        int namePosition = 0;
+        int intPosition = 0;
+        index = 0;
+        for (ObjectType objectType : objectTypes) {
+            byte[] name = names[index];
+            int recordStart = HEADER_SIZE + index * RECORD_SIZE;
+            buffer.position(recordStart);
+
+            buffer.putInt(namePosition);
+            buffer.putInt(name.length);
+            buffer.putInt(objectType.id);
+            buffer.putInt(objectType.animationId);
+            buffer.putInt(objectType.modelSizeX);
+            buffer.putInt(objectType.modelSizeY);
+            buffer.putInt(objectType.modelSizeZ);
+            buffer.putInt(objectType.offsetX);
+            buffer.putInt(objectType.offsetY);
+            buffer.putInt(objectType.offsetZ);
+            buffer.putInt(objectType.ambient);
+            buffer.putInt(objectType.contrast);
+            buffer.putInt(objectType.rotated ? FLAG_ROTATED : 0);
+
+            for (int[] array : arraysOf(objectType)) {
+                if (array == null) {
+                    buffer.putInt(0);
+                    buffer.putInt(NULL_ARRAY);
+                    continue;
+                }
+
+                buffer.putInt(intPosition);
+                buffer.putInt(array.length);
+
+                int arrayStart = intPoolOffset + intPosition * 4;
+                for (int i = 0; i < array.length; i++) {
+                    buffer.putInt(arrayStart + i * 4, array[i]);
+                }
+                intPosition += array.length;
+            }
+
+            buffer.position(stringTableOffset + namePosition);
+            buffer.put(name);
+            namePosition += name.length;
+            index++;
+        }
+
+        buffer.rewind();
+
+        Path target = catalogFile.toPath();
+        Path temp = target.resolveSibling(catalogFile.getName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.debug("Wrote {} objects to catalog {} ({} bytes)", count, catalogFile.getAbsolutePath(), totalSize);
+    }
+
+    /**
+     * Memory-map a catalog file. Entries are decoded on demand by the returned catalog.
+     * @throws IOException If the file is not a catalog, or any of its records points outside the file
+     */
+    public static MappedObjectCatalog open(File catalogFile) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(catalogFile.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an object catalog: " + catalogFile.getAbsolutePath());
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported object catalog version " + buffer.getInt(4));
+        }
+
+        int count = buffer.getInt(24);
+        int stringTableOffset = buffer.getInt(28);
+        int intPoolOffset = buffer.getInt(32);
+
+        // In long, so a corrupt count cannot overflow into a plausible offset
+        long indexEnd = HEADER_SIZE + (long) count * RECORD_SIZE;
+        if (count < 0 || stringTableOffset != indexEnd || intPoolOffset < stringTableOffset
+                || intPoolOffset > buffer.capacity() || (buffer.capacity() - intPoolOffset) % 4 != 0) {
+            throw new IOException("Corrupt object catalog: " + catalogFile.getAbsolutePath());
+        }
+
+        return new MappedObjectCatalog(buffer, count, stringTableOffset, intPoolOffset);
+    }
+
+    /**
+     * Memory-map a catalog file and decode every entry
+     */
+    public static List<ObjectType> read(File catalogFile) throws IOException {
+        MappedObjectCatalog catalog = open(catalogFile);
+
+        List<ObjectType> objectTypes = new ArrayList<>(catalog.size());
+        for (int i = 0; i < catalog.size(); i++) {
+            objectTypes.add(catalog.decode(i));
+        }
+        return objectTypes;
+    }
+
+    private static int[][] arraysOf(ObjectType objectType) {
+        int[][] arrays = new int[ARRAY_COUNT][];
+        arrays[ARRAY_MODELS] = objectType.objectModels;
+        arrays[ARRAY_TYPES] = objectType.objectTypes;
+        arrays[ARRAY_RECOLOR_FIND] = objectType.recolorToFind;
+        arrays[ARRAY_RECOLOR_REPLACE] = objectType.recolorToReplace;
+        arrays[ARRAY_RETEXTURE_FIND] = objectType.retextureToFind;
+        arrays[ARRAY_TEXTURE_REPLACE] = objectType.textureToReplace;
+        return arrays;
+    }
+}
@@ -0,0 +1,384 @@
+package io.mark.pmpoh.objects;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the local objects.json in sync with the asset repository.
+ *
+ * The manifest entry for objects.json always carries a whole-file sha256. It may also advertise
+ * fixed-size chunk hashes:
+ * <pre>
+ * "objects.json": { "sha256": "...", "size": 1234567, "chunkSize": 65536, "chunks": ["...", "..."] }
+ * </pre>
+ * When chunks are present, only the chunks whose hash is not already found in the local file are
+ * fetched (adjacent ones coalesced into a single HTTP range request) and merged into a new copy of the
+ * file. The result is verified against the whole-file hash, and any failure falls back to a full download.
+ */
+@Slf4j
+public class ObjectCatalogUpdater {
+
+    private static final String OBJECTS_URL = "https://raw.githubusercontent.com/Pimp-My-House/PMH-Assets/main/objects/objects.json";
+    private static final String MANIFEST_URL = "https://raw.githubusercontent.com/Pimp-My-House/PMH-Assets/main/manifest.json";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int HASH_PREFIX_LENGTH = 8;
+
+    private final String objectsUrl;
+    private final String manifestUrl;
+
+    public ObjectCatalogUpdater() {
+        this(OBJECTS_URL, MANIFEST_URL);
+    }
+
+    ObjectCatalogUpdater(String objectsUrl, String manifestUrl) {
+        this.objectsUrl = objectsUrl;
+        this.manifestUrl = manifestUrl;
+    }
+
+    /**
+     * Bring the local objects.json up to date with the remote manifest
+     * @param localFile The local objects.json
+     * @return true if the local file was replaced, false if it was already current or the manifest was unavailable
+     */
+    public boolean update(File localFile) throws IOException {
+        PendingUpdate update = fetchUpdate(localFile);
+        if (update == null) {
+            return false;
+        }
+
+        update.install();
+        return true;
+    }
+
+    /**
+     * Download a newer objects.json next to the local one without replacing it yet.
+     * The local file is only read, so this can run while it is being parsed.
+     * @param localFile The local objects.json
+     * @return The downloaded update, or null if the local file is current or the manifest was unavailable
+     */
+    public PendingUpdate fetchUpdate(File localFile) throws IOException {
+        if (!localFile.exists()) {
+            log.info("Local objects.json not found, will download");
+            return downloadFull(localFile);
+        }
+
+        Manifest manifest = fetchManifest();
+        if (manifest == null) {
+            log.info("Could not check manifest, using existing local file");
+            return null;
+        }
+
+        String localSha256 = CatalogFingerprint.sha256(localFile);
+        if (manifest.sha256.equalsIgnoreCase(localSha256)) {
+            log.info("Local objects.json is up to date (SHA256: {}...)",
+                localSha256.substring(0, HASH_PREFIX_LENGTH));
+            return null;
+        }
+
+        log.info("Local objects.json is outdated. Remote: {}..., Local: {}",
+            prefix(manifest.sha256),
+            localSha256 != null ? prefix(localSha256) + "..." : "unknown");
+
+        if (manifest.hasChunks()) {
+            try {
+                PendingUpdate update = downloadChangedChunks(localFile, manifest);
+                if (update != null) {
+                    return update;
+                }
+            } catch (IOException e) {
+                log.warn("Partial update of objects.json failed, falling back to full download", e);
+            }
+        }
+
+        return downloadFull(localFile);
+    }
+
+    private PendingUpdate downloadFull(File localFile) throws IOException {
+        log.info("Downloading objects.json from GitHub...");
+
+        Path temp = partFile(localFile);
+        MessageDigest digest = newDigest();
+        try (InputStream inputStream = new DigestInputStream(new URL(objectsUrl).openStream(), digest)) {
+            Files.copy(inputStream, temp, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        log.info("Downloaded objects.json ({} bytes)", Files.size(temp));
+        return new PendingUpdate(temp, localFile, bytesToHex(digest.digest()));
+    }
+
+    /**
+     * Rebuild objects.json from unchanged local chunks plus range-fetched remote chunks
+     * @return The merged file, or null if it did not match the manifest
+     */
+    private PendingUpdate downloadChangedChunks(File localFile, Manifest manifest) throws IOException {
+        int chunkSize = manifest.chunkSize;
+        int chunkCount = manifest.chunks.size();
+        if ((manifest.size + chunkSize - 1) / chunkSize != chunkCount) {
+            log.warn("Manifest lists {} chunks but size {} needs {}, skipping partial update",
+                chunkCount, manifest.size, (manifest.size + chunkSize - 1) / chunkSize);
+            return null;
+        }
+
+        Map<String, Integer> localChunks = hashChunks(localFile, chunkSize);
+        Path temp = partFile(localFile);
+        int fetchedChunks = 0;
+        int requests = 0;
+
+        try (FileChannel local = new RandomAccessFile(localFile, "r").getChannel();
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int chunk = 0;
+            while (chunk < chunkCount) {
+                Integer localChunk = localChunks.get(manifest.chunks.get(chunk));
+                if (localChunk != null) {
+                    long length = Math.min(chunkSize, manifest.size - (long) chunk * chunkSize);
+                    transfer(local, (long) localChunk * chunkSize, length, out);
+                    chunk++;
+                    continue;
+                }
+
+                // Coalesce a run of missing chunks into one range request
+                int last = chunk;
+                while (last + 1 < chunkCount && !localChunks.containsKey(manifest.chunks.get(last + 1))) {
+                    last++;
+                }
+
+                long from = (long) chunk * chunkSize;
+                long to = Math.min(manifest.size, (long) (last + 1) * chunkSize) - 1;
+                fetchRange(from, to, out);
+
+                fetchedChunks += last - chunk + 1;
+                requests++;
+                chunk = last + 1;
+            }
+        }
+
+        String mergedSha256 = sha256(temp.toFile());
+        if (!manifest.sha256.equalsIgnoreCase(mergedSha256)) {
+            log.warn("Merged objects.json hash {}... does not match manifest {}...", prefix(mergedSha256), prefix(manifest.sha256));
+            Files.deleteIfExists(temp);
+            return null;
+        }
+
+        log.info("Merged objects.json update: fetched {} of {} chunks in {} requests", fetchedChunks, chunkCount, requests);
+        return new PendingUpdate(temp, localFile, mergedSha256);
+    }
+
+    private void fetchRange(long from, long to, FileChannel out) throws IOException {
+        URLConnection connection = new URL(objectsUrl).openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            throw new IOException("Range requests are not supported for " + objectsUrl);
+        }
+
+        HttpURLConnection http = (HttpURLConnection) connection;
+        http.setRequestProperty("Range", "bytes=" + from + "-" + to);
+        try {
+            int responseCode = http.getResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Server did not honour range request (HTTP " + responseCode + ")");
+            }
+
+            long expected = to - from + 1;
+            long received = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = http.getInputStream()) {
+                int bytesRead;
+                while (received < expected && (bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, expected - received))) != -1) {
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, bytesRead);
+                    while (data.hasRemaining()) {
+                        out.write(data);
+                    }
+                    received += bytesRead;
+                }
+            }
+
+            if (received != expected) {
+                throw new IOException("Range " + from + "-" + to + " returned " + received + " of " + expected + " bytes");
+            }
+        } finally {
+            http.disconnect();
+        }
+    }
+
+    private static void transfer(FileChannel source, long position, long length, FileChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            long count = source.transferTo(position + transferred, length - transferred, target);
+            if (count <= 0) {
+                throw new IOException("Unexpected end of local objects.json at " + (position + transferred));
+            }
+            transferred += count;
+        }
+    }
+
+    /**
+     * Hash the local file in fixed-size chunks
+     * @return Map of chunk hash to the first chunk index with that hash
+     */
+    private static Map<String, Integer> hashChunks(File file, int chunkSize) throws IOException {
+        Map<String, Integer> chunks = new HashMap<>();
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[chunkSize];
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            int index = 0;
+            int filled;
+            while ((filled = readFully(in, buffer)) > 0) {
+                digest.update(buffer, 0, filled);
+                chunks.putIfAbsent(bytesToHex(digest.digest()), index++);
+            }
+        }
+        return chunks;
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int filled = 0;
+        int bytesRead;
+        while (filled < buffer.length && (bytesRead = in.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += bytesRead;
+        }
+        return filled;
+    }
+
+    private Manifest fetchManifest() {
+        try (InputStream inputStream = new URL(manifestUrl).openStream();
+             InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+
+            JsonObject manifest = new Gson().fromJson(reader, JsonObject.class);
+            JsonObject objectsJson = manifest != null ? manifest.getAsJsonObject("objects.json") : null;
+            if (objectsJson == null || !objectsJson.has("sha256")) {
+                return null;
+            }
+
+            return Manifest.fromJson(objectsJson);
+        } catch (Exception e) {
+            log.warn("Failed to fetch manifest.json", e);
+            return null;
+        }
+    }
+
+    static String sha256(File file) {
+        try {
+            MessageDigest digest = newDigest();
+
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int bytesRead;
+                while ((bytesRead = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, bytesRead);
+                }
+            }
+
+            return bytesToHex(digest.digest());
+        } catch (IOException e) {
+            log.warn("Failed to calculate SHA256 for {}", file.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String bytesToHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static String prefix(String sha256) {
+        return sha256 != null && sha256.length() > HASH_PREFIX_LENGTH ? sha256.substring(0, HASH_PREFIX_LENGTH) : String.valueOf(sha256);
+    }
+
+    private static Path partFile(File localFile) {
+        return localFile.toPath().resolveSibling(localFile.getName() + ".part");
+    }
+
+    /**
+     * A downloaded objects.json waiting to replace the local copy
+     */
+    public static class PendingUpdate {
+        private final Path file;
+        private final File target;
+        private final String sha256;
+
+        private PendingUpdate(Path file, File target, String sha256) {
+            this.file = file;
+            this.target = target;
+            this.sha256 = sha256;
+        }
+
+        /**
+         * Atomically replace the local objects.json with the downloaded one
+         */
+        public void install() throws IOException {
+            Files.move(file, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CatalogFingerprint.record(target, sha256);
+            log.info("Installed objects.json update to {}", target.getAbsolutePath());
+        }
+    }
+
+    /**
+     * The objects.json entry of manifest.json
+     */
+    static class Manifest {
+        String sha256;
+        long size = -1;
+        int chunkSize;
+        List<String> chunks;
+
+        boolean hasChunks() {
+            return size > 0 && chunkSize > 0 && chunks != null && !chunks.isEmpty();
+        }
+
+        static Manifest fromJson(JsonObject json) {
+            Manifest manifest = new Manifest();
+            manifest.sha256 = json.get("sha256").getAsString();
+
+            if (json.has("size") && json.has("chunkSize") && json.has("chunks")) {
+                manifest.size = json.get("size").getAsLong();
+                manifest.chunkSize = json.get("chunkSize").getAsInt();
+
+                JsonArray chunkArray = json.getAsJsonArray("chunks");
+                manifest.chunks = new ArrayList<>(chunkArray.size());
+                for (JsonElement chunk : chunkArray) {
+                    manifest.chunks.add(chunk.getAsString().toLowerCase());
+                }
+            }
+            return manifest;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.mark.pmpoh.objects;
+
+import lombok.Getter;
+
+/**
+ * Object browser categories, derived from an object's shape types (ObjectType.objectTypes)
+ */
+public enum ObjectCategory {
+    GAME_OBJECTS("GameObjects"),
+    WALLS("Walls"),
+    FLOORS("Floors"),
+    ROOFS("Roofs"),
+    DOORS("Doors"),
+    WINDOWS("Windows"),
+    DECORATIONS("Decorations");
+
+    // Gameval words of ground decorations that cover the floor
+    private static final String[] FLOOR_WORDS = {"FLOOR", "RUG", "CARPET"};
+
+    @Getter
+    private final String displayName;
+
+    ObjectCategory(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return The category with the given dropdown label, or null for "All" and unknown labels
+     */
+    public static ObjectCategory fromDisplayName(String displayName) {
+        for (ObjectCategory category : values()) {
+            if (category.displayName.equals(displayName)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether an object with the given upper-case gameval and shape types belongs to this category.
+     * Shapes: 0-3 and 9 walls, 4-8 wall decorations, 10-11 game objects, 12-21 roofs, 22 ground decorations.
+     * Decorations are both wall and ground decorations. Floor tiles are not objects at all, so Floors holds the
+     * ground decorations that cover the floor (rugs, carpets, floor pieces) rather than all of shape 22, which is
+     * mostly flowers, debris and the like. Doors and windows are walls or game objects named as such.
+     */
+    boolean matches(String gameval, int[] shapes) {
+        switch (this) {
+            case GAME_OBJECTS:
+                return hasShape(shapes, 10, 11);
+            case WALLS:
+                return isWall(shapes);
+            case FLOORS:
+                return hasShape(shapes, 22, 22) && isFloorCovering(gameval);
+            case ROOFS:
+                return hasShape(shapes, 12, 21);
+            case DOORS:
+                return (isWall(shapes) || hasShape(shapes, 10, 11)) && gameval.contains("DOOR");
+            case WINDOWS:
+                return (isWall(shapes) || hasShape(shapes, 10, 11)) && gameval.contains("WINDOW");
+            case DECORATIONS:
+                return hasShape(shapes, 4, 8) || hasShape(shapes, 22, 22);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isFloorCovering(String gameval) {
+        for (String word : FLOOR_WORDS) {
+            if (gameval.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWall(int[] shapes) {
+        return hasShape(shapes, 0, 3) || hasShape(shapes, 9, 9);
+    }
+
+    private static boolean hasShape(int[] shapes, int from, int to) {
+        if (shapes == null) {
+            return false;
+        }
+        for (int shape : shapes) {
+            if (shape >= from && shape <= to) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package io.mark.pmpoh.objects;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog indices per {@link ObjectCategory}, built once per catalog snapshot. Each category is kept both
+ * as a bitset, for intersecting with tab and search results, and as an array in gameval order, for
+ * listing a category without filtering the whole catalog.
+ */
+public class ObjectCategoryIndex {
+
+    private final ObjectCatalog catalog;
+    private final Map<ObjectCategory, BitSet> members = new EnumMap<>(ObjectCategory.class);
+    private final Map<ObjectCategory, int[]> sortedMembers = new EnumMap<>(ObjectCategory.class);
+
+    public ObjectCategoryIndex(ObjectCatalog catalog) {
+        this.catalog = catalog;
+
+        ObjectCategory[] categories = ObjectCategory.values();
+        for (ObjectCategory category : categories) {
+            members.put(category, new BitSet(catalog.size()));
+        }
+
+        for (int index = 0; index < catalog.size(); index++) {
+            String gameval = catalog.getGameval(index).toUpperCase();
+            int[] shapes = catalog.getObjectTypes(index);
+            for (ObjectCategory category : categories) {
+                if (category.matches(gameval, shapes)) {
+                    members.get(category).set(index);
+                }
+            }
+        }
+
+        for (ObjectCategory category : categories) {
+            BitSet bits = members.get(category);
+            int[] sorted = new int[bits.cardinality()];
+            int size = 0;
+            CatalogEntryList allSorted = catalog.sortedEntries();
+            for (int position = 0; position < allSorted.size(); position++) {
+                int index = allSorted.indexAt(position);
+                if (bits.get(index)) {
+                    sorted[size++] = index;
+                }
+            }
+            sortedMembers.put(category, sorted);
+        }
+    }
+
+    /**
+     * Catalog indices in the category. The returned bitset is a copy and may be modified.
+     */
+    public BitSet members(ObjectCategory category) {
+        return (BitSet) members.get(category).clone();
+    }
+
+    public boolean contains(ObjectCategory category, int index) {
+        return members.get(category).get(index);
+    }
+
+    public int size(ObjectCategory category) {
+        return sortedMembers.get(category).length;
+    }
+
+    /**
+     * The category's entries ordered by gameval, as an immutable random-access list
+     */
+    public List<Map.Entry<String, ObjectType>> sortedEntries(ObjectCategory category) {
+        return new CatalogEntryList(catalog, sortedMembers.get(category));
+    }
+}
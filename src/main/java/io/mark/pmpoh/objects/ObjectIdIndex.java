@@ -0,0 +1,59 @@
+package io.mark.pmpoh.objects;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash from object id to catalog index. Keys and values live in parallel int arrays,
+ * so building and probing the index never boxes.
+ */
+final class ObjectIdIndex {
+
+    private static final int NO_INDEX = -1;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+
+    /**
+     * @param ids Object id per catalog index; for duplicate ids the lowest index wins
+     */
+    ObjectIdIndex(int[] ids) {
+        // Keep the load factor at or below 0.5 so probe chains stay short
+        int capacity = Integer.highestOneBit(Math.max(2, ids.length) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(values, NO_INDEX);
+
+        for (int index = 0; index < ids.length; index++) {
+            int slot = slot(ids[index]);
+            while (values[slot] != NO_INDEX && keys[slot] != ids[index]) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == NO_INDEX) {
+                keys[slot] = ids[index];
+                values[slot] = index;
+            }
+        }
+    }
+
+    /**
+     * @return The catalog index of the object with the given id, or -1 if there is none
+     */
+    int indexOf(int id) {
+        int slot = slot(id);
+        while (values[slot] != NO_INDEX) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_INDEX;
+    }
+
+    private int slot(int id) {
+        // Fibonacci hashing spreads sequential ids across the table
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
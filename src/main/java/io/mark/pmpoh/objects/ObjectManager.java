@@ -1,31 +1,35 @@
 package io.mark.pmpoh.objects;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.inject.Singleton;
 import java.io.*;
-import java.lang.reflect.Type;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 @Singleton
 public class ObjectManager {
+    // Built for each immutable catalog snapshot and replaced as a whole, so readers never see a half-loaded
+    // catalog. The index is the only reference to its catalog, so the two can never be mixed across snapshots.
     @Getter
-    private final Map<String, ObjectType> objectsByGameval = new HashMap<>();
+    private volatile ObjectSearchIndex searchIndex = new ObjectSearchIndex(ObjectCatalog.EMPTY);
     
+    // SHA-256 of the objects.json the catalog was loaded from, identifying the catalog version;
+    // null until it has been computed in the background after each load
+    @Getter
+    private volatile String catalogHash;
+
     @Getter
     private volatile boolean isLoading = false;
     
@@ -37,15 +41,62 @@ public class ObjectManager {
     
     @Setter
     private Runnable onLoadCompleteCallback = null;
+
+    // Run on the loader thread each time the hash of a newly published catalog becomes known
+    private final List<Runnable> catalogHashListeners = new CopyOnWriteArrayList<>();
     
-    private static final String OBJECTS_URL = "https://raw.githubusercontent.com/Pimp-My-House/PMH-Assets/main/objects/objects.json";
-    private static final String MANIFEST_URL = "https://raw.githubusercontent.com/Pimp-My-House/PMH-Assets/main/manifest.json";
     private static final String SAVE_DIR = "pimp-my-poh";
     private static final String OBJECTS_FILE = "objects.json";
+    private static final String CATALOG_PREFIX = "objects-";
+    private static final String CATALOG_SUFFIX = ".bin";
     private static final int BUFFER_SIZE = 8192;
-    private static final int HASH_PREFIX_LENGTH = 8;
+
+    private final ObjectCatalogUpdater catalogUpdater = new ObjectCatalogUpdater();
+
+    // Blocking network and disk work, kept off the common pool
+    private final ExecutorService loaderExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pmpoh-object-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private File getObjectsFile() {
+        return getSaveFile(OBJECTS_FILE);
+    }
+
+    /**
+     * The binary catalog generated from this objects.json. It is named after the source's size and mtime, so an
+     * update writes a new file instead of replacing one that may still be mapped, which Windows refuses.
+     */
+    private File getCatalogFile(File jsonFile) {
+        return getSaveFile(CATALOG_PREFIX + Long.toHexString(jsonFile.length())
+            + "-" + Long.toHexString(jsonFile.lastModified()) + CATALOG_SUFFIX);
+    }
+
+    /**
+     * Delete catalogs generated from older objects.json versions, and leftovers of interrupted writes.
+     * A catalog still mapped by a released snapshot may refuse deletion until it is unmapped; it is retried
+     * on the next load.
+     */
+    private static void deleteOldCatalogs(File current) {
+        File[] files = current.getParentFile().listFiles((dir, name) -> name.startsWith("objects")
+            && (name.endsWith(CATALOG_SUFFIX) || name.endsWith(CATALOG_SUFFIX + ".tmp")));
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (!file.equals(current)) {
+                if (file.delete()) {
+                    log.debug("Deleted old catalog {}", file.getName());
+                } else {
+                    log.debug("Could not delete old catalog {} yet", file.getName());
+                }
+            }
+        }
+    }
+
+    private File getSaveFile(String filename) {
         String userHome = System.getProperty("user.home");
         Path saveDir = Paths.get(userHome, ".runelite", SAVE_DIR);
         
@@ -55,7 +106,7 @@ public class ObjectManager {
             log.warn("Failed to create save directory", e);
         }
         
-        return saveDir.resolve(OBJECTS_FILE).toFile();
+        return saveDir.resolve(filename).toFile();
     }
     
     public void init() {
@@ -72,72 +123,84 @@ public class ObjectManager {
                 loadingError = "Failed to load objects: " + e.getMessage();
                 isLoading = false;
             }
-        });
+        }, loaderExecutor);
     }
     
     private void downloadAndLoadObjects() {
         File localFile = getObjectsFile();
-        
+
+        if (!localFile.exists()) {
+            try {
+                catalogUpdater.update(localFile);
+                
+                loadCatalog(localFile);
+                markAsReady();
+                
+            } catch (Exception e) {
+                log.error("Failed to download objects.json", e);
+                handleLoadFailure(localFile, e);
+            }
+            return;
+        }
+
+        // Check the manifest (and download any update) while the local copy is being parsed
+        CompletableFuture<ObjectCatalogUpdater.PendingUpdate> pendingUpdate =
+            CompletableFuture.supplyAsync(() -> fetchUpdate(localFile), loaderExecutor);
+
+        if (loadLocalCatalog(localFile)) {
+            try {
+                ObjectCatalogUpdater.PendingUpdate update = pendingUpdate.join();
+                if (update != null) {
+                    update.install();
+                    loadCatalog(localFile);
+                    log.info("Swapped in {} objects from updated objects.json", getObjectCount());
+                    notifyLoadComplete();
+                }
+            } catch (Exception e) {
+                log.warn("Failed to update objects.json, keeping the loaded catalog", e);
+            }
+            return;
+        }
+
+        // The local copy is unusable, so loading has to wait for the update
         try {
-            if (shouldDownload(localFile)) {
-                downloadObjectsFile(localFile);
+            ObjectCatalogUpdater.PendingUpdate update = pendingUpdate.join();
+            if (update != null) {
+                update.install();
             }
-            
-            loadFromFile(localFile);
+
+            loadCatalog(localFile);
             markAsReady();
-            
+
         } catch (Exception e) {
             log.error("Failed to download objects.json", e);
             handleLoadFailure(localFile, e);
         }
     }
-    
-    private boolean shouldDownload(File localFile) {
-        if (!localFile.exists()) {
-            log.info("Local objects.json not found, will download");
-            return true;
-        }
-        
-        String remoteSha256 = getRemoteSha256();
-        if (remoteSha256 == null) {
-            log.info("Could not check manifest, using existing local file");
-            return false;
-        }
-        
-        String localSha256 = calculateFileSha256(localFile);
-        if (localSha256 != null && localSha256.equals(remoteSha256)) {
-            log.info("Local objects.json is up to date (SHA256: {}...)", 
-                localSha256.substring(0, HASH_PREFIX_LENGTH));
-            return false;
+
+    private ObjectCatalogUpdater.PendingUpdate fetchUpdate(File localFile) {
+        try {
+            return catalogUpdater.fetchUpdate(localFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        
-        log.info("Local objects.json is outdated. Remote: {}..., Local: {}", 
-            remoteSha256.substring(0, HASH_PREFIX_LENGTH),
-            localSha256 != null ? localSha256.substring(0, HASH_PREFIX_LENGTH) + "..." : "unknown");
-        return true;
     }
-    
-    private void downloadObjectsFile(File localFile) throws IOException {
-        log.info("Downloading objects.json from GitHub...");
-        
-        URL url = new URL(OBJECTS_URL);
-        try (InputStream inputStream = url.openStream();
-             FileOutputStream outputStream = new FileOutputStream(localFile)) {
-            
-            byte[] buffer = new byte[BUFFER_SIZE];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
+
+    private boolean loadLocalCatalog(File localFile) {
+        try {
+            loadCatalog(localFile);
+            markAsReady();
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to load local objects.json, waiting for a fresh copy", e);
+            return false;
         }
-        
-        log.info("Downloaded objects.json to {}", localFile.getAbsolutePath());
     }
     
     private void markAsReady() {
         isReady = true;
         isLoading = false;
-        log.info("Successfully loaded {} objects from objects.json", objectsByGameval.size());
+        log.info("Successfully loaded {} objects from objects.json", getObjectCount());
         notifyLoadComplete();
     }
     
@@ -145,10 +208,10 @@ public class ObjectManager {
         if (localFile.exists()) {
             log.info("Download failed, attempting to load from local file...");
             try {
-                loadFromFile(localFile);
+                loadCatalog(localFile);
                 isReady = true;
                 isLoading = false;
-                log.info("Successfully loaded {} objects from local file", objectsByGameval.size());
+                log.info("Successfully loaded {} objects from local file", getObjectCount());
                 notifyLoadComplete();
                 return;
             } catch (Exception localException) {
@@ -167,74 +230,89 @@ public class ObjectManager {
         }
     }
     
-    private String getRemoteSha256() {
-        try {
-            URL manifestUrl = new URL(MANIFEST_URL);
-            Gson gson = new Gson();
-            
-            try (InputStream inputStream = manifestUrl.openStream();
-                 InputStreamReader reader = new InputStreamReader(inputStream)) {
-                
-                JsonObject manifest = gson.fromJson(reader, JsonObject.class);
-                JsonObject objectsJson = manifest.getAsJsonObject("objects.json");
-                
-                if (objectsJson != null && objectsJson.has("sha256")) {
-                    return objectsJson.get("sha256").getAsString();
-                }
+    /**
+     * Load objects from the binary catalog, regenerating it from objects.json when it is missing or stale.
+     * Entries are decoded lazily from the mapped catalog; if it cannot be used, objects.json is parsed onto the heap.
+     */
+    private synchronized void loadCatalog(File jsonFile) throws IOException {
+        File catalogFile = getCatalogFile(jsonFile);
+        long start = System.nanoTime();
+
+        if (ObjectCatalogFile.isUpToDate(catalogFile, jsonFile)) {
+            try {
+                MappedObjectCatalog mapped = ObjectCatalogFile.open(catalogFile);
+                log.info("Mapped {} objects from {} in {} ms", mapped.size(), catalogFile.getName(), elapsedMillis(start));
+                publish(mapped, jsonFile);
+                deleteOldCatalogs(catalogFile);
+                return;
+            } catch (IOException | RuntimeException e) {
+                // A damaged catalog is treated as stale and regenerated below
+                log.warn("Failed to read {}, falling back to {}", catalogFile.getName(), OBJECTS_FILE, e);
             }
-        } catch (Exception e) {
-            log.warn("Failed to fetch manifest.json, will download objects.json anyway", e);
         }
-        
-        return null;
-    }
-    
-    private String calculateFileSha256(File file) {
+
+        Map<String, ObjectType> objectTypes = readJsonCatalog(jsonFile);
+        log.info("Parsed {} objects from {} in {} ms", objectTypes.size(), OBJECTS_FILE, elapsedMillis(start));
+
+        ObjectCatalog loaded;
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            
-            try (FileInputStream fis = new FileInputStream(file);
-                 BufferedInputStream bis = new BufferedInputStream(fis)) {
-                
-                byte[] buffer = new byte[BUFFER_SIZE];
-                int bytesRead;
-                while ((bytesRead = bis.read(buffer)) != -1) {
-                    digest.update(buffer, 0, bytesRead);
-                }
-            }
-            
-            return bytesToHex(digest.digest());
-        } catch (Exception e) {
-            log.warn("Failed to calculate SHA256 for local file", e);
-            return null;
+            ObjectCatalogFile.write(catalogFile, objectTypes.values(), jsonFile);
+            loaded = ObjectCatalogFile.open(catalogFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write {}, keeping objects on the heap until next start", catalogFile.getName(), e);
+            loaded = new HeapObjectCatalog(objectTypes);
         }
+        publish(loaded, jsonFile);
+        deleteOldCatalogs(catalogFile);
     }
-    
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+
+    void publish(ObjectCatalog loaded, File jsonFile) {
+        long start = System.nanoTime();
+        ObjectSearchIndex index = new ObjectSearchIndex(loaded);
+        log.debug("Built search and category indexes for {} objects in {} ms", loaded.size(), elapsedMillis(start));
+
+        searchIndex = index;
+        catalogHash = null;
+
+        // Only thumbnails need the hash, so it must not hold up the load; the fingerprint usually has it already
+        loaderExecutor.execute(() -> {
+            String hash = CatalogFingerprint.sha256(jsonFile);
+            if (getCatalog() == loaded) {
+                catalogHash = hash;
+                catalogHashListeners.forEach(Runnable::run);
+            }
+        });
     }
-    
-    private void loadFromFile(File file) throws IOException {
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(ObjectType.class, new ObjectTypeDeserializer())
-                .create();
 
-        Type listType = new TypeToken<List<ObjectType>>(){}.getType();
-        
-        try (FileReader reader = new FileReader(file)) {
-            List<ObjectType> objectTypes = gson.fromJson(reader, listType);
-            
-            if (objectTypes == null) {
+    /**
+     * Stream objects.json entry by entry straight into a gameval map, without building an intermediate list
+     */
+    static Map<String, ObjectType> readJsonCatalog(File file) throws IOException {
+        ObjectTypeDeserializer deserializer = new ObjectTypeDeserializer();
+        Map<String, ObjectType> objectTypes = new LinkedHashMap<>();
+
+        try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(file), BUFFER_SIZE))) {
+            if (reader.peek() == JsonToken.NULL) {
                 throw new IOException("Failed to parse objects.json: null result");
             }
-            
-            objectsByGameval.clear();
-            objectTypes.forEach(objectType -> objectsByGameval.put(objectType.name, objectType));
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                ObjectType objectType = deserializer.read(reader);
+                if (objectType != null) {
+                    objectTypes.put(objectType.name, objectType);
+                }
+            }
+            reader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Failed to parse objects.json: " + e.getMessage(), e);
         }
+
+        return objectTypes;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
     
     public void retryLoad() {
@@ -250,21 +328,46 @@ public class ObjectManager {
                 loadingError = "Failed to load objects: " + e.getMessage();
                 isLoading = false;
             }
-        });
+        }, loaderExecutor);
+    }
+
+    /**
+     * Run the listener each time the catalog hash becomes known after a load, on the loader thread
+     */
+    public void addCatalogHashListener(Runnable listener) {
+        catalogHashListeners.add(listener);
+    }
+
+    /**
+     * The current catalog snapshot
+     */
+    public ObjectCatalog getCatalog() {
+        return searchIndex.getCatalog();
     }
 
     public ObjectType getByGameval(String gameval) {
-        return objectsByGameval.get(gameval);
+        return getCatalog().getByGameval(gameval);
+    }
+
+    public ObjectType getById(int id) {
+        return getCatalog().getById(id);
+    }
+
+    public int getObjectCount() {
+        return getCatalog().size();
     }
 
     public void clean() {
-        objectsByGameval.clear();
+        searchIndex = new ObjectSearchIndex(ObjectCatalog.EMPTY);
+        catalogHash = null;
     }
 
+    /**
+     * All objects ordered by gameval. The list is immutable and sorted once per loaded catalog,
+     * so calling this on every keystroke or page change is cheap.
+     */
     public List<Map.Entry<String, ObjectType>> getAllObjectsSorted() {
-        return objectsByGameval.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .collect(Collectors.toList());
+        return getCatalog().sortedEntries();
     }
 
 }
@@ -0,0 +1,722 @@
+package io.mark.pmpoh.objects;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Case-insensitive gameval search over one catalog snapshot, built once when the catalog is loaded.
+ *
+ * Prefix queries resolve to a contiguous range of the lowercased keys kept in sorted order (a flattened
+ * trie: every trie subtree is exactly such a range). Substring queries intersect the posting lists of
+ * the query's trigrams and verify the few remaining candidates. Queries shorter than a trigram only match
+ * at the start of a key or of one of its words, as nearly every key contains a letter or two somewhere;
+ * those keys are the sorted range of keys plus the sorted range of words starting with the query.
+ *
+ * Results are ranked: exact match, then key prefix, then word prefix (after an underscore or space),
+ * then any other substring; ties go to the boosted key (see below), then the shorter key, then alphabetical order.
+ *
+ * Typo-tolerant queries match word by word: every query word must be within a small Damerau-Levenshtein
+ * distance of some word of the key (the last query word may also match a word's prefix, as it is usually
+ * still being typed). Only the distinct words of the catalog are compared, and their posting lists give
+ * the keys. Fuzzy results are ranked by total edit distance, then boost, then number of unmatched key words,
+ * then length.
+ *
+ * Callers may pass per-object boosts (0-255 by catalog index, e.g. from usage history). A boost never lifts
+ * a result above a better match, it only orders results of equal match quality.
+ *
+ * The index also carries the snapshot's {@link ObjectCategoryIndex}, so category filters and search results
+ * always refer to the same catalog.
+ */
+public class ObjectSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private static final int TIER_EXACT = 0;
+    private static final int TIER_PREFIX = 1;
+    private static final int TIER_WORD_PREFIX = 2;
+    private static final int TIER_SUBSTRING = 3;
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final int MAX_BOOST = 0xFF;
+
+    @Getter
+    private final ObjectCatalog catalog;
+
+    @Getter
+    private final ObjectCategoryIndex categories;
+
+    // Lowercased gamevals by sorted position, and the catalog index at each position
+    private final String[] sortedKeys;
+    private final int[] sortedOrder;
+
+    // Trigram -> slot in postingOffsets; slot's postings are postings[offsets[slot]..offsets[slot + 1]),
+    // ascending sorted positions of the keys containing that trigram
+    private final TrigramTable trigrams;
+    private final int[] postingOffsets;
+    private final int[] postings;
+
+    // Distinct words of the keys in alphabetical order; word i's postings are wordPostings[wordOffsets[i]..wordOffsets[i + 1]),
+    // ascending sorted positions of the keys containing that word
+    private final String[] words;
+    private final int[] wordOffsets;
+    private final int[] wordPostings;
+    private final int maxWordLength;
+
+    public ObjectSearchIndex(ObjectCatalog catalog) {
+        this.catalog = catalog;
+        this.categories = new ObjectCategoryIndex(catalog);
+
+        int count = catalog.size();
+        String[] keys = new String[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = catalog.getGameval(i).toLowerCase();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+
+        sortedKeys = new String[count];
+        sortedOrder = new int[count];
+        for (int position = 0; position < count; position++) {
+            sortedOrder[position] = order[position];
+            sortedKeys[position] = keys[order[position]];
+        }
+
+        // First pass: number the distinct trigrams and count the keys containing each
+        trigrams = new TrigramTable(1024);
+        int[] counts = new int[16];
+        int[] lastPosition = new int[16];
+        for (int position = 0; position < count; position++) {
+            String key = sortedKeys[position];
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                int slot = trigrams.add(trigram(key, i));
+                if (slot == counts.length) {
+                    counts = Arrays.copyOf(counts, slot * 2);
+                    lastPosition = Arrays.copyOf(lastPosition, slot * 2);
+                }
+                // Positions are 1-based here so the zeroed array reads as "not seen yet"
+                if (lastPosition[slot] != position + 1) {
+                    lastPosition[slot] = position + 1;
+                    counts[slot]++;
+                }
+            }
+        }
+
+        postingOffsets = new int[trigrams.size() + 1];
+        for (int slot = 0; slot < trigrams.size(); slot++) {
+            postingOffsets[slot + 1] = postingOffsets[slot] + counts[slot];
+        }
+
+        // Second pass: fill each trigram's posting range in ascending position order
+        postings = new int[postingOffsets[trigrams.size()]];
+        int[] fill = Arrays.copyOf(postingOffsets, trigrams.size());
+        Arrays.fill(lastPosition, 0);
+        for (int position = 0; position < count; position++) {
+            String key = sortedKeys[position];
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                int slot = trigrams.get(trigram(key, i));
+                if (lastPosition[slot] != position + 1) {
+                    lastPosition[slot] = position + 1;
+                    postings[fill[slot]++] = position;
+                }
+            }
+        }
+
+        // Same two passes for whole words
+        HashMap<String, Integer> wordIds = new HashMap<>();
+        List<String> wordList = new ArrayList<>();
+        int[] wordCounts = new int[16];
+        int[] wordLastPosition = new int[16];
+        for (int position = 0; position < count; position++) {
+            for (String word : words(sortedKeys[position])) {
+                Integer id = wordIds.get(word);
+                if (id == null) {
+                    id = wordList.size();
+                    wordIds.put(word, id);
+                    wordList.add(word);
+                    if (id == wordCounts.length) {
+                        wordCounts = Arrays.copyOf(wordCounts, id * 2);
+                        wordLastPosition = Arrays.copyOf(wordLastPosition, id * 2);
+                    }
+                }
+                if (wordLastPosition[id] != position + 1) {
+                    wordLastPosition[id] = position + 1;
+                    wordCounts[id]++;
+                }
+            }
+        }
+
+        // Renumber the words alphabetically, so neighbouring words share prefixes (see wordDistances)
+        Integer[] byWord = new Integer[wordList.size()];
+        for (int id = 0; id < byWord.length; id++) {
+            byWord[id] = id;
+        }
+        Arrays.sort(byWord, (a, b) -> wordList.get(a).compareTo(wordList.get(b)));
+
+        words = new String[byWord.length];
+        int[] wordRank = new int[byWord.length];
+        wordOffsets = new int[words.length + 1];
+        int longestWord = 0;
+        for (int rank = 0; rank < words.length; rank++) {
+            int id = byWord[rank];
+            words[rank] = wordList.get(id);
+            wordRank[id] = rank;
+            wordOffsets[rank + 1] = wordOffsets[rank] + wordCounts[id];
+            longestWord = Math.max(longestWord, words[rank].length());
+        }
+        maxWordLength = longestWord;
+
+        wordPostings = new int[wordOffsets[words.length]];
+        int[] wordFill = Arrays.copyOf(wordOffsets, words.length);
+        Arrays.fill(wordLastPosition, 0);
+        for (int position = 0; position < count; position++) {
+            for (String word : words(sortedKeys[position])) {
+                int id = wordRank[wordIds.get(word)];
+                if (wordLastPosition[id] != position + 1) {
+                    wordLastPosition[id] = position + 1;
+                    wordPostings[wordFill[id]++] = position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ranked catalog indices of every key containing the query (case-insensitive), or starting a word
+     * with it for queries shorter than three characters
+     */
+    public int[] search(String query) {
+        return search(query, 0, null);
+    }
+
+    /**
+     * Ranked substring matches, followed by typo-tolerant matches when there are fewer than the limit
+     * @param fuzzyLimit The maximum number of results to fill up with fuzzy matches
+     */
+    public int[] search(String query, int fuzzyLimit) {
+        return search(query, fuzzyLimit, null);
+    }
+
+    /**
+     * Ranked substring matches, followed by typo-tolerant matches when there are fewer than the limit
+     * @param fuzzyLimit The maximum number of results to fill up with fuzzy matches
+     * @param boosts Ranking boost (0-255) by catalog index, or null
+     */
+    public int[] search(String query, int fuzzyLimit, int[] boosts) {
+        String needle = query.toLowerCase();
+        if (needle.isEmpty()) {
+            return NO_MATCHES;
+        }
+
+        int[] positions = needle.length() < GRAM ? prefixCandidates(needle) : substringCandidates(needle);
+        int[] matches = rank(needle, positions, boosts);
+        if (matches.length >= fuzzyLimit) {
+            return matches;
+        }
+
+        int[] fuzzy = fuzzySearch(query, fuzzyLimit, boosts);
+        BitSet seen = new BitSet(catalog.size());
+        for (int match : matches) {
+            seen.set(match);
+        }
+
+        int[] combined = Arrays.copyOf(matches, Math.min(fuzzyLimit, matches.length + fuzzy.length));
+        int size = matches.length;
+        for (int i = 0; i < fuzzy.length && size < combined.length; i++) {
+            if (!seen.get(fuzzy[i])) {
+                combined[size++] = fuzzy[i];
+            }
+        }
+        return Arrays.copyOf(combined, size);
+    }
+
+    /**
+     * Catalog indices of the best keys matching every query word within a few typos, best first
+     * @param limit The maximum number of results
+     */
+    public int[] fuzzySearch(String query, int limit) {
+        return fuzzySearch(query, limit, null);
+    }
+
+    /**
+     * Catalog indices of the best keys matching every query word within a few typos, best first
+     * @param limit The maximum number of results
+     * @param boosts Ranking boost (0-255) by catalog index, or null
+     */
+    public int[] fuzzySearch(String query, int limit, int[] boosts) {
+        String[] queryWords = words(query.toLowerCase());
+        if (queryWords.length == 0 || limit <= 0) {
+            return NO_MATCHES;
+        }
+
+        // Best edit distance summed over the query words, for keys that matched every word so far
+        int[] totalCost = null;
+        int[] candidates = NO_MATCHES;
+        int candidateCount = 0;
+        int[] wordCost = new int[sortedKeys.length];
+
+        for (int q = 0; q < queryWords.length; q++) {
+            String queryWord = queryWords[q];
+            boolean prefix = q == queryWords.length - 1;
+            int maxEdits = maxEdits(queryWord.length());
+
+            Arrays.fill(wordCost, NO_MATCH);
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            int[] distances = wordDistances(queryWord, maxEdits, prefix);
+            for (int id = 0; id < words.length; id++) {
+                int distance = distances[id];
+                if (distance > maxEdits) {
+                    continue;
+                }
+                for (int i = wordOffsets[id]; i < wordOffsets[id + 1]; i++) {
+                    int position = wordPostings[i];
+                    if (wordCost[position] == NO_MATCH) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = position;
+                    }
+                    wordCost[position] = Math.min(wordCost[position], distance);
+                }
+            }
+
+            if (totalCost == null) {
+                totalCost = new int[sortedKeys.length];
+                candidates = touched;
+                candidateCount = touchedCount;
+                for (int i = 0; i < candidateCount; i++) {
+                    totalCost[candidates[i]] = wordCost[candidates[i]];
+                }
+            } else {
+                int kept = 0;
+                for (int i = 0; i < candidateCount; i++) {
+                    int position = candidates[i];
+                    if (wordCost[position] != NO_MATCH) {
+                        totalCost[position] += wordCost[position];
+                        candidates[kept++] = position;
+                    }
+                }
+                candidateCount = kept;
+            }
+        }
+
+        // Keep the best `limit` candidates in a max-heap of packed sort keys
+        long[] heap = new long[Math.min(limit, candidateCount)];
+        int heapSize = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int position = candidates[i];
+            String key = sortedKeys[position];
+            long cost = Math.min(totalCost[position], 0x7);
+            long boostRank = MAX_BOOST - boost(boosts, position);
+            long extraWords = Math.min(Math.max(0, wordCount(key) - queryWords.length), 0xF);
+            long length = Math.min(key.length(), 0xFFFF);
+            long sortKey = cost << 60 | boostRank << 52 | extraWords << 48 | length << 32 | position;
+
+            if (heapSize < heap.length) {
+                heap[heapSize] = sortKey;
+                siftUp(heap, heapSize++);
+            } else if (sortKey < heap[0]) {
+                heap[0] = sortKey;
+                siftDown(heap, heapSize);
+            }
+        }
+        Arrays.sort(heap, 0, heapSize);
+
+        int[] indices = new int[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            indices[i] = sortedOrder[(int) heap[i]];
+        }
+        return indices;
+    }
+
+    private int[] substringCandidates(String needle) {
+        // Start from the rarest trigram so the intersection shrinks as fast as possible
+        int gramCount = needle.length() - GRAM + 1;
+        int[][] lists = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            int slot = trigrams.get(trigram(needle, i));
+            if (slot < 0) {
+                return NO_MATCHES;
+            }
+            lists[i] = Arrays.copyOfRange(postings, postingOffsets[slot], postingOffsets[slot + 1]);
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+
+        // Trigrams can co-occur without forming the query, so confirm each candidate
+        int[] matches = new int[candidates.length];
+        int matchCount = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (gramCount == 1 || sortedKeys[candidates[i]].contains(needle)) {
+                matches[matchCount++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(matches, matchCount);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Ascending sorted positions of the keys that start with the needle or have a word starting with it
+     */
+    private int[] prefixCandidates(String needle) {
+        BitSet matches = new BitSet(sortedKeys.length);
+        int keyFrom = lowerBound(sortedKeys, needle);
+        matches.set(keyFrom, prefixEnd(sortedKeys, needle, keyFrom));
+
+        int wordFrom = lowerBound(words, needle);
+        int wordTo = prefixEnd(words, needle, wordFrom);
+        for (int i = wordOffsets[wordFrom]; i < wordOffsets[wordTo]; i++) {
+            matches.set(wordPostings[i]);
+        }
+        return matches.stream().toArray();
+    }
+
+    /**
+     * Order matching sorted positions by tier, boost, key length and alphabetical position, and map them to catalog indices
+     */
+    private int[] rank(String needle, int[] positions, int[] boosts) {
+        long[] sortKeys = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int position = positions[i];
+            String key = sortedKeys[position];
+            long length = Math.min(key.length(), 0xFFFF);
+            long boostRank = MAX_BOOST - boost(boosts, position);
+            sortKeys[i] = (long) tier(key, needle) << 56 | boostRank << 48 | length << 32 | position;
+        }
+        Arrays.sort(sortKeys);
+
+        int[] indices = new int[sortKeys.length];
+        for (int i = 0; i < sortKeys.length; i++) {
+            indices[i] = sortedOrder[(int) sortKeys[i]];
+        }
+        return indices;
+    }
+
+    private int boost(int[] boosts, int position) {
+        return boosts != null ? Math.max(0, Math.min(MAX_BOOST, boosts[sortedOrder[position]])) : 0;
+    }
+
+    private static int tier(String key, String needle) {
+        if (key.startsWith(needle)) {
+            return key.length() == needle.length() ? TIER_EXACT : TIER_PREFIX;
+        }
+
+        int from = key.indexOf(needle);
+        while (from > 0) {
+            char before = key.charAt(from - 1);
+            if (before == '_' || before == ' ') {
+                return TIER_WORD_PREFIX;
+            }
+            from = key.indexOf(needle, from + 1);
+        }
+        return TIER_SUBSTRING;
+    }
+
+    private static int lowerBound(String[] sorted, String prefix) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int prefixEnd(String[] sorted, String prefix, int from) {
+        int low = from;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Typos allowed per query word: none for one or two characters, one up to five, then two
+     */
+    private static int maxEdits(int length) {
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance from the query word to every word, or to the word's closest prefix
+     * when {@code prefix} is set. Words are visited in alphabetical order, which walks the word trie:
+     * the rows for the prefix a word shares with the previous one are reused, and words that continue a
+     * prefix already beyond maxEdits are skipped.
+     * @return Distance by word id, maxEdits + 1 for words that are further away
+     */
+    private int[] wordDistances(String query, int maxEdits, boolean prefix) {
+        int n = query.length();
+        int stride = n + 1;
+        // Only the first n + maxEdits characters of a word can take part in a prefix match
+        int maxRows = prefix ? n + maxEdits : maxWordLength;
+
+        // d[j * stride + i] is the distance between query[0, i) and word[0, j)
+        int[] d = new int[(maxRows + 1) * stride];
+        // Smallest d[j' * stride + n] over j' <= j, the best prefix distance within the first j characters
+        int[] bestPrefix = new int[maxRows + 1];
+        for (int i = 0; i <= n; i++) {
+            d[i] = i;
+        }
+        bestPrefix[0] = n;
+
+        int[] distances = new int[words.length];
+        String previous = "";
+        int validRows = 0; // rows computed for the previous word
+        int abortedRow = NO_MATCH; // row at which the previous word went beyond maxEdits
+
+        for (int id = 0; id < words.length; id++) {
+            String word = words[id];
+            if (!prefix && Math.abs(word.length() - n) > maxEdits) {
+                distances[id] = maxEdits + 1;
+                continue;
+            }
+
+            int m = Math.min(word.length(), maxRows);
+            int shared = commonPrefixLength(previous, word, Math.min(validRows, m));
+            if (shared >= abortedRow) {
+                // Same prefix as a word that already failed, so this one fails the same way
+                distances[id] = prefix ? Math.min(bestPrefix[abortedRow], maxEdits + 1) : maxEdits + 1;
+                continue;
+            }
+
+            int aborted = NO_MATCH;
+            int row = shared;
+            while (row < m) {
+                int j = ++row;
+                char wordChar = word.charAt(j - 1);
+                int current = j * stride;
+                int above = current - stride;
+                d[current] = j;
+                int rowMin = j;
+                for (int i = 1; i <= n; i++) {
+                    char queryChar = query.charAt(i - 1);
+                    int cost = queryChar == wordChar ? 0 : 1;
+                    int value = Math.min(Math.min(d[above + i] + 1, d[current + i - 1] + 1), d[above + i - 1] + cost);
+                    if (i > 1 && j > 1 && queryChar == word.charAt(j - 2) && query.charAt(i - 2) == wordChar) {
+                        value = Math.min(value, d[above - stride + i - 2] + 1);
+                    }
+                    d[current + i] = value;
+                    rowMin = Math.min(rowMin, value);
+                }
+                bestPrefix[j] = Math.min(bestPrefix[j - 1], d[current + n]);
+
+                // Later rows only grow from here, transpositions included
+                if (rowMin > maxEdits) {
+                    aborted = j;
+                    break;
+                }
+            }
+
+            previous = word;
+            validRows = row;
+            abortedRow = aborted;
+
+            int distance;
+            if (prefix) {
+                distance = bestPrefix[row];
+            } else {
+                distance = aborted != NO_MATCH ? maxEdits + 1 : d[m * stride + n];
+            }
+            distances[id] = Math.min(distance, maxEdits + 1);
+        }
+        return distances;
+    }
+
+    private static int commonPrefixLength(String a, String b, int limit) {
+        int length = 0;
+        int max = Math.min(limit, Math.min(a.length(), b.length()));
+        while (length < max && a.charAt(length) == b.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Non-empty words of a key or query, split on underscores and spaces
+     */
+    private static String[] words(String text) {
+        List<String> words = new ArrayList<>(4);
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '_' || text.charAt(i) == ' ') {
+                if (i > start) {
+                    words.add(text.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static int wordCount(String key) {
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < key.length(); i++) {
+            boolean separator = key.charAt(i) == '_' || key.charAt(i) == ' ';
+            if (!separator && !inWord) {
+                count++;
+            }
+            inWord = !separator;
+        }
+        return count;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] >= heap[i]) {
+                return;
+            }
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heap[left] > heap[largest]) {
+                largest = left;
+            }
+            if (right < size && heap[right] > heap[largest]) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(heap, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(long[] heap, int a, int b) {
+        long temp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temp;
+    }
+
+    private static long trigram(String key, int offset) {
+        return (long) key.charAt(offset) << 32 | (long) key.charAt(offset + 1) << 16 | key.charAt(offset + 2);
+    }
+
+    /**
+     * Open-addressing map from packed trigram to a dense slot number, without boxing
+     */
+    private static final class TrigramTable {
+        private static final long EMPTY = -1L; // trigrams pack three chars into 48 bits, so never negative
+
+        private long[] keys;
+        private int[] slots;
+        private int size;
+
+        TrigramTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            slots = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return The trigram's slot, or -1 if it is not in the table
+         */
+        int get(long trigram) {
+            int mask = keys.length - 1;
+            for (int i = hash(trigram) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == trigram) {
+                    return slots[i];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return The trigram's slot, assigning the next free one if it is new
+         */
+        int add(long trigram) {
+            int mask = keys.length - 1;
+            int i = hash(trigram) & mask;
+            for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == trigram) {
+                    return slots[i];
+                }
+            }
+
+            keys[i] = trigram;
+            slots[i] = size;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return size - 1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new long[oldKeys.length * 2];
+            slots = new int[oldSlots.length * 2];
+            Arrays.fill(keys, EMPTY);
+
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    int i = hash(oldKeys[j]) & mask;
+                    while (keys[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    slots[i] = oldSlots[j];
+                }
+            }
+        }
+
+        private static int hash(long trigram) {
+            long hash = trigram * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
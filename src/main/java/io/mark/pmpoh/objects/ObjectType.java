@@ -1,5 +1,6 @@
 package io.mark.pmpoh.objects;
 
+import io.mark.pmpoh.util.WeightedLruCache;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
@@ -9,9 +10,7 @@ import net.runelite.api.gameval.VarbitID;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 @Getter
 @Slf4j
@@ -36,14 +35,21 @@ public class ObjectType
     public int[] retextureToFind;
     public boolean rotated = false;
 
-    // Model cache with LRU eviction (max 200 entries, shared across all ObjectType instances)
-    private static final int MAX_CACHE_SIZE = 200;
-    private static final Map<String, Model> modelCache = new LinkedHashMap<String, Model>(MAX_CACHE_SIZE, 0.75f, true) {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, Model> eldest) {
-            return size() > MAX_CACHE_SIZE;
-        }
-    };
+    // Lit model cache shared across all ObjectType instances and threads, bounded by the estimated memory of its models
+    public static final int DEFAULT_MODEL_CACHE_MB = 32;
+    private static final long MODEL_OVERHEAD_BYTES = 256;
+    private static final long BYTES_PER_VERTEX = 16; // x, y, z and normal data
+    private static final long BYTES_PER_FACE = 32; // indices, lit colors, transparency, priority and texture
+    // Extra model merged into every preview
+    private static final int PREVIEW_EXTRA_MODEL = 18871;
+    private static final WeightedLruCache<String, Model> modelCache =
+        new WeightedLruCache<>(litModelBudget(DEFAULT_MODEL_CACHE_MB), ObjectType::estimateModelBytes);
+
+    // Unlit merged model data by component model ids, so objects sharing geometry load and merge it once.
+    // Takes this share of the memory budget, the lit models the rest.
+    private static final int MODEL_DATA_BUDGET_DIVISOR = 4;
+    private static final WeightedLruCache<ModelIds, ModelData> modelDataCache =
+        new WeightedLruCache<>(modelDataBudget(DEFAULT_MODEL_CACHE_MB), ObjectType::estimateModelDataBytes);
 
     @Override
     public String toString()
@@ -51,29 +57,37 @@ public class ObjectType
         return name + " (" + id + ")";
     }
 
+    /**
+     * The lit model, or with preview set, the translucent version shown while placing the object.
+     * Both are cached per object, so following the cursor with a preview does not rebuild it every tile.
+     */
     public final Model getModel(Client client, boolean preview) {
+        if (!preview) {
+            return getModel(client);
+        }
+
+        String cacheKey = name + "_preview";
+        Model cachedModel = modelCache.get(cacheKey);
+        if (cachedModel != null) {
+            return cachedModel;
+        }
 
-        ModelData model = loadModel(client);
+        ModelData model = loadVariant(client);
         if (model == null) {
             return null;
         }
 
-        Model result;
-        if (preview) {
-            ModelData merge = client.mergeModels(model,client.loadModelData(18871));
-            merge.cloneTransparencies();
+        ModelData merge = client.mergeModels(model,client.loadModelData(PREVIEW_EXTRA_MODEL));
+        merge.cloneTransparencies();
 
-            byte[] transparencies = merge.getFaceTransparencies();
+        byte[] transparencies = merge.getFaceTransparencies();
 
-            for (int i = 0; i < merge.getFaceCount(); i++) {
-                transparencies[i] = 5;
-            }
-
-            result = merge.light(ambient + 64, contrast + 768, -50, -10, -50);
-        } else {
-            result = model.shallowCopy().light(ambient + 64, contrast + 768, -50, -10, -50);
+        for (int i = 0; i < merge.getFaceCount(); i++) {
+            transparencies[i] = 5;
         }
 
+        Model result = merge.light(ambient + 64, contrast + 768, -50, -10, -50);
+        modelCache.put(cacheKey, result);
         return result;
     }
 
@@ -84,23 +98,75 @@ public class ObjectType
             return cachedModel;
         }
 
-        ModelData data = loadModel(client);
+        ModelData data = loadVariant(client);
         if (data == null) {
             return null;
         }
 
-        Model result = data.shallowCopy().light(ambient + 64, contrast + 768, -50, -10, -50);
+        Model result = data.light(ambient + 64, contrast + 768, -50, -10, -50);
         
         // Cache the model
         modelCache.put(cacheKey, result);
         return result;
     }
 
+    /**
+     * Load and light the model without going through the model cache, for one-off uses such as thumbnails
+     */
+    public final Model loadLitModel(Client client) {
+        ModelData data = loadVariant(client);
+        return data != null ? data.light(ambient + 64, contrast + 768, -50, -10, -50) : null;
+    }
+
+    /**
+     * The object's own copy of its merged model data, with its recolors and retextures applied.
+     * Only the arrays that change are cloned; the geometry stays shared with the cached merged data.
+     */
+    private ModelData loadVariant(Client client) {
+        ModelData base = loadModel(client);
+        if (base == null) {
+            return null;
+        }
+
+        ModelData variant = base.shallowCopy();
+        if (recolorToFind != null && recolorToReplace != null) {
+            variant.cloneColors();
+            for (int i = 0; i < Math.min(recolorToFind.length, recolorToReplace.length); i++) {
+                variant.recolor((short) recolorToFind[i], (short) recolorToReplace[i]);
+            }
+        }
+        if (retextureToFind != null && textureToReplace != null) {
+            variant.cloneTextures();
+            for (int i = 0; i < Math.min(retextureToFind.length, textureToReplace.length); i++) {
+                variant.retexture((short) retextureToFind[i], (short) textureToReplace[i]);
+            }
+        }
+        return variant;
+    }
+
+    /**
+     * The merged, unlit model data of the object's component models.
+     * The data is shared with every object made of the same models, so it must be copied before it is changed.
+     */
     protected ModelData loadModel(Client client) {
         if (objectModels == null || objectModels.length == 0) {
             return null;
         }
 
+        ModelIds key = new ModelIds(objectModels);
+        ModelData cached = modelDataCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        ModelData merged = mergeModels(client);
+        if (merged != null) {
+            modelDataCache.put(key, merged);
+        }
+        return merged;
+    }
+
+    private ModelData mergeModels(Client client) {
         List<Integer> modelsToLoad = new ArrayList<>(objectModels.length);
         for (int id : objectModels) {
             modelsToLoad.add(id);
@@ -126,6 +192,75 @@ public class ObjectType
      */
     public static void clearModelCache() {
         modelCache.clear();
+        modelDataCache.clear();
+    }
+
+    /**
+     * Set the memory budget of the model caches, evicting models right away if it shrank
+     */
+    public static void setModelCacheBudget(int megabytes) {
+        modelCache.setMaxWeight(litModelBudget(megabytes));
+        modelDataCache.setMaxWeight(modelDataBudget(megabytes));
+    }
+
+    /**
+     * Size, hit, miss and eviction counts of the model caches, for tuning their budget
+     */
+    public static String getModelCacheStats() {
+        return "lit models: " + modelCache + "; model data: " + modelDataCache;
+    }
+
+    private static long litModelBudget(int megabytes) {
+        return megabytes * 1024L * 1024L - modelDataBudget(megabytes);
+    }
+
+    private static long modelDataBudget(int megabytes) {
+        return megabytes * 1024L * 1024L / MODEL_DATA_BUDGET_DIVISOR;
+    }
+
+    /**
+     * Memory budget of the lit model cache, in bytes
+     */
+    public static long getModelCacheBudget() {
+        return modelCache.getMaxWeight();
+    }
+
+    /**
+     * Rough memory footprint of a lit model, from its vertex and face counts
+     */
+    public static long estimateModelBytes(Model model) {
+        return estimateMeshBytes(model.getVerticesCount(), model.getFaceCount());
+    }
+
+    static long estimateModelDataBytes(ModelData modelData) {
+        return estimateMeshBytes(modelData.getVerticesCount(), modelData.getFaceCount());
+    }
+
+    private static long estimateMeshBytes(int vertexCount, int faceCount) {
+        return MODEL_OVERHEAD_BYTES + vertexCount * BYTES_PER_VERTEX + faceCount * BYTES_PER_FACE;
+    }
+
+    /**
+     * Component model ids of an object, as a cache key
+     */
+    static final class ModelIds {
+        private final int[] ids;
+        private final int hash;
+
+        ModelIds(int[] ids) {
+            this.ids = ids.clone();
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ModelIds && Arrays.equals(ids, ((ModelIds) o).ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 
 }
\ No newline at end of file
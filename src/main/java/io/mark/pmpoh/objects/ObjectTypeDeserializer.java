@@ -1,74 +1,150 @@
 package io.mark.pmpoh.objects;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.Arrays;
 
-public class ObjectTypeDeserializer implements JsonDeserializer<ObjectType> {
+/**
+ * Streaming reader for the shortened objects.json entries. Fields are decoded straight from the
+ * token stream, so no intermediate JsonObject tree is built per entry.
+ */
+public class ObjectTypeDeserializer extends TypeAdapter<ObjectType> {
     @Override
-    public ObjectType deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        JsonObject jsonObject = json.getAsJsonObject();
+    public ObjectType read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
         ObjectType objectType = new ObjectType();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
 
-        // Map shortened field names to full field names
-        if (jsonObject.has("i")) {
-            objectType.id = jsonObject.get("i").getAsInt();
-        }
-        if (jsonObject.has("g")) {
-            objectType.name = jsonObject.get("g").getAsString();
-        }
-        if (jsonObject.has("a")) {
-            objectType.animationId = jsonObject.get("a").getAsInt();
-        }
-        if (jsonObject.has("om")) {
-            objectType.objectModels = parseIntArray(jsonObject.get("om").getAsJsonArray());
-        }
-        if (jsonObject.has("ot")) {
-            objectType.objectTypes = parseIntArray(jsonObject.get("ot").getAsJsonArray());
-        }
-        if (jsonObject.has("sz")) {
-            objectType.modelSizeZ = jsonObject.get("sz").getAsInt();
-        }
-        if (jsonObject.has("ox")) {
-            objectType.offsetX = jsonObject.get("ox").getAsInt();
-        }
-        if (jsonObject.has("oy")) {
-            objectType.offsetY = jsonObject.get("oy").getAsInt();
-        }
-        if (jsonObject.has("oz")) {
-            objectType.offsetZ = jsonObject.get("oz").getAsInt();
-        }
-        if (jsonObject.has("am")) {
-            objectType.ambient = jsonObject.get("am").getAsInt();
-        }
-        if (jsonObject.has("co")) {
-            objectType.contrast = jsonObject.get("co").getAsInt();
-        }
-        if (jsonObject.has("rr")) {
-            objectType.recolorToReplace = parseIntArray(jsonObject.get("rr").getAsJsonArray());
-        }
-        if (jsonObject.has("rf")) {
-            objectType.recolorToFind = parseIntArray(jsonObject.get("rf").getAsJsonArray());
-        }
-        if (jsonObject.has("tr")) {
-            objectType.textureToReplace = parseIntArray(jsonObject.get("tr").getAsJsonArray());
-        }
-        if (jsonObject.has("tf")) {
-            objectType.retextureToFind = parseIntArray(jsonObject.get("tf").getAsJsonArray());
-        }
-        if (jsonObject.has("r")) {
-            objectType.rotated = jsonObject.get("r").getAsBoolean();
-        }
+            // Map shortened field names to full field names
+            switch (key) {
+                case "i":
+                    objectType.id = in.nextInt();
+                    break;
+                case "g":
+                    objectType.name = in.nextString();
+                    break;
+                case "a":
+                    objectType.animationId = in.nextInt();
+                    break;
+                case "om":
+                    objectType.objectModels = readIntArray(in);
+                    break;
+                case "ot":
+                    objectType.objectTypes = readIntArray(in);
+                    break;
+                case "sz":
+                    objectType.modelSizeZ = in.nextInt();
+                    break;
+                case "ox":
+                    objectType.offsetX = in.nextInt();
+                    break;
+                case "oy":
+                    objectType.offsetY = in.nextInt();
+                    break;
+                case "oz":
+                    objectType.offsetZ = in.nextInt();
+                    break;
+                case "am":
+                    objectType.ambient = in.nextInt();
+                    break;
+                case "co":
+                    objectType.contrast = in.nextInt();
+                    break;
+                case "rr":
+                    objectType.recolorToReplace = readIntArray(in);
+                    break;
+                case "rf":
+                    objectType.recolorToFind = readIntArray(in);
+                    break;
+                case "tr":
+                    objectType.textureToReplace = readIntArray(in);
+                    break;
+                case "tf":
+                    objectType.retextureToFind = readIntArray(in);
+                    break;
+                case "r":
+                    objectType.rotated = in.peek() == JsonToken.STRING
+                            ? Boolean.parseBoolean(in.nextString())
+                            : in.nextBoolean();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
 
         return objectType;
     }
 
-    private int[] parseIntArray(JsonArray jsonArray) {
-        int[] result = new int[jsonArray.size()];
-        for (int i = 0; i < jsonArray.size(); i++) {
-            result[i] = jsonArray.get(i).getAsInt();
+    @Override
+    public void write(JsonWriter out, ObjectType objectType) throws IOException {
+        if (objectType == null) {
+            out.nullValue();
+            return;
         }
-        return result;
+
+        out.beginObject();
+        out.name("i").value(objectType.id);
+        if (objectType.name != null) {
+            out.name("g").value(objectType.name);
+        }
+        out.name("a").value(objectType.animationId);
+        writeIntArray(out, "om", objectType.objectModels);
+        writeIntArray(out, "ot", objectType.objectTypes);
+        out.name("sz").value(objectType.modelSizeZ);
+        out.name("ox").value(objectType.offsetX);
+        out.name("oy").value(objectType.offsetY);
+        out.name("oz").value(objectType.offsetZ);
+        out.name("am").value(objectType.ambient);
+        out.name("co").value(objectType.contrast);
+        writeIntArray(out, "rr", objectType.recolorToReplace);
+        writeIntArray(out, "rf", objectType.recolorToFind);
+        writeIntArray(out, "tr", objectType.textureToReplace);
+        writeIntArray(out, "tf", objectType.retextureToFind);
+        out.name("r").value(objectType.rotated);
+        out.endObject();
     }
-}
 
+    private int[] readIntArray(JsonReader in) throws IOException {
+        int[] result = new int[8];
+        int size = 0;
+
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == result.length) {
+                result = Arrays.copyOf(result, size * 2);
+            }
+            result[size++] = in.nextInt();
+        }
+        in.endArray();
+
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private void writeIntArray(JsonWriter out, String name, int[] values) throws IOException {
+        if (values == null) {
+            return;
+        }
+
+        out.name(name).beginArray();
+        for (int value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,137 @@
+package io.mark.pmpoh.service;
+
+import io.mark.pmpoh.objects.ObjectManager;
+import io.mark.pmpoh.objects.ObjectType;
+import io.mark.pmpoh.poh.ObjectSpawn;
+import io.mark.pmpoh.poh.RoomPosition;
+import io.mark.pmpoh.util.ZoneTileUtil;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.Model;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.client.callback.ClientThread;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the model cache with every object of a saved house before it is spawned.
+ * Loading and lighting a model is the slow part of spawning, so the distinct models are built a few at a
+ * time over consecutive client ticks instead of all in the tick that spawns the house. Rooms nearest the
+ * player go first, so even a prefetch cut short by another house load has warmed the models most in view.
+ * Prefetching stops once the models fill the model cache budget, since building more would only evict
+ * the nearest rooms' models again before the house is spawned.
+ */
+@Slf4j
+@Singleton
+public class ModelPrefetchService {
+
+    // Time spent building models per client tick; at least one model is built every tick
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private ClientThread clientThread;
+
+    @Inject
+    private ObjectManager objectManager;
+
+    // Bumped on every prefetch, so a newer house load or cancel() stops an older prefetch.
+    // cancel() is also called from the plugin thread on shutdown, hence atomic.
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Build the models of every object in the rooms over the following client ticks, then run onComplete
+     * on the client thread. Never builds or completes before returning. Must be called on the client thread.
+     */
+    public void prefetch(Map<Integer, RoomPosition> roomsByIndex, Runnable onComplete) {
+        int prefetchGeneration = generation.incrementAndGet();
+        Iterator<String> gamevals = gamevalsNearestFirst(roomsByIndex).iterator();
+        long budget = ObjectType.getModelCacheBudget();
+        long start = System.nanoTime();
+        int[] built = {0};
+        long[] builtBytes = {0};
+
+        // Always start on a later tick: the caller is handling the scene load, and a small or already cached
+        // house would otherwise finish, and spawn, before the scene is ready
+        clientThread.invokeLater(() -> {
+            if (prefetchGeneration != generation.get()) {
+                return true;
+            }
+
+            long tickStart = System.nanoTime();
+            do {
+                if (!gamevals.hasNext() || builtBytes[0] >= budget) {
+                    log.debug("Prefetched {} models ({} KB) over {} ms{}", built[0], builtBytes[0] / 1024,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        gamevals.hasNext() ? ", stopped at the model cache budget" : "");
+                    onComplete.run();
+                    return true;
+                }
+
+                ObjectType objectType = objectManager.getByGameval(gamevals.next());
+                Model model = objectType != null ? objectType.getModel(client) : null;
+                if (model != null) {
+                    built[0]++;
+                    builtBytes[0] += ObjectType.estimateModelBytes(model);
+                }
+            } while (System.nanoTime() - tickStart < TICK_BUDGET_NANOS);
+
+            // Continue next tick
+            return false;
+        });
+    }
+
+    /**
+     * Stop any running prefetch without running its completion
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Distinct gamevals of the rooms' objects, starting with the room the player stands in and moving outwards
+     */
+    private Set<String> gamevalsNearestFirst(Map<Integer, RoomPosition> roomsByIndex) {
+        int[] playerRoom = playerRoom();
+        List<RoomPosition> rooms = new ArrayList<>(roomsByIndex.values());
+        if (playerRoom != null) {
+            rooms.sort(Comparator.comparingInt(room ->
+                Math.max(Math.abs(room.getX() - playerRoom[0]), Math.abs(room.getY() - playerRoom[1]))));
+        }
+
+        Set<String> gamevals = new LinkedHashSet<>();
+        for (RoomPosition room : rooms) {
+            if (room.getObjects() == null) {
+                continue;
+            }
+            for (ObjectSpawn objectSpawn : room.getObjects()) {
+                if (objectSpawn.getGameval() != null) {
+                    gamevals.add(objectSpawn.getGameval());
+                }
+            }
+        }
+        return gamevals;
+    }
+
+    /**
+     * @return The {x, y} room coordinates of the player, or null if unknown
+     */
+    private int[] playerRoom() {
+        Player player = client.getLocalPlayer();
+        LocalPoint location = player != null ? player.getLocalLocation() : null;
+        return location != null ? ZoneTileUtil.localPointToZoneTile(location) : null;
+    }
+}
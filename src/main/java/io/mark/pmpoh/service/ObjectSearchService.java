@@ -0,0 +1,38 @@
+package io.mark.pmpoh.service;
+
+import javax.inject.Singleton;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs object browser queries off the EDT. A single thread keeps queries in submission order, and is shared by
+ * every object list panel, since the toolbox builds a new panel whenever it is rebuilt.
+ * The plugin shuts the thread down when it stops; the next query after a restart starts a new one.
+ */
+@Singleton
+public class ObjectSearchService {
+
+    private ExecutorService executor;
+
+    public synchronized Future<?> submit(Runnable query) {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pmpoh-object-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor.submit(query);
+    }
+
+    /**
+     * Stop the search thread, dropping queued queries
+     */
+    public synchronized void shutDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
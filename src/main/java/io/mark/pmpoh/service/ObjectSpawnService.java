@@ -7,16 +7,18 @@ import io.mark.pmpoh.poh.RoomPosition;
 import io.mark.pmpoh.util.UsableChunkCache;
 import io.mark.pmpoh.util.ZoneTileUtil;
 import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Animation;
+import net.runelite.api.AnimationController;
 import net.runelite.api.Client;
 import net.runelite.api.RuneLiteObject;
 import net.runelite.api.coords.LocalPoint;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service for managing object spawning and tracking
@@ -31,8 +33,12 @@ public class ObjectSpawnService {
     @Inject
     private ObjectManager objectManager;
     
-    // Track spawned objects by room index
-    private final Map<Integer, List<RuneLiteObject>> spawnedObjectsByRoom = new HashMap<>();
+    // Spawned objects by the saved spawn they show. Rooms keep their ObjectSpawn instances when they move,
+    // so a respawn can tell which objects are unchanged, moved, added or deleted.
+    private final Map<ObjectSpawn, SpawnedObject> spawnedObjects = new IdentityHashMap<>();
+
+    // Loaded animations by id, shared by every object playing them
+    private final Map<Integer, Animation> animations = new HashMap<>();
     
     /**
      * Spawn an object from ObjectSpawn data
@@ -56,6 +62,7 @@ public class ObjectSpawnService {
         } else {
             log.warn("Failed to get model for object: {}", objectSpawn.getGameval());
         }
+        applyAnimation(runeLiteObject, objectType);
 
         runeLiteObject.setOrientation(objectSpawn.getOrientation());
         runeLiteObject.setLocation(localPoint, client.getPlane());
@@ -67,9 +74,33 @@ public class ObjectSpawnService {
     }
     
     /**
-     * Load and spawn objects from room positions
+     * Play the object type's animation on the object, looping, if it has one.
+     * The animation is loaded once per id and shared; each object only gets its own frame counter, since the
+     * client advances every object's controller itself and a shared one would run once per object per frame.
+     */
+    public void applyAnimation(RuneLiteObject runeLiteObject, ObjectType objectType) {
+        int animationId = objectType.getAnimationId();
+        if (animationId <= 0) {
+            return;
+        }
+
+        Animation animation = animations.computeIfAbsent(animationId, client::loadAnimation);
+        if (animation == null) {
+            log.debug("Failed to load animation {} for object {}", animationId, objectType.getName());
+            return;
+        }
+
+        AnimationController controller = new AnimationController(client, animation);
+        controller.setOnFinished(AnimationController::loop);
+        runeLiteObject.setAnimationController(controller);
+    }
+
+    /**
+     * Bring the spawned objects in line with the rooms, touching only objects that changed:
+     * unchanged objects are left alone, objects whose room moved are relocated in place, new objects are
+     * spawned and objects no longer in any room are removed.
      * @param roomsByIndex Map of room index to RoomPosition
-     * @return Number of objects spawned
+     * @return Number of objects newly spawned
      */
     public int loadObjectsFromRooms(Map<Integer, RoomPosition> roomsByIndex) {
         // Check if cache is valid
@@ -79,8 +110,13 @@ public class ObjectSpawnService {
         }
 
         log.debug("Loading objects from {} rooms", roomsByIndex.size());
-        int totalObjects = 0;
-        int spawnedObjects = 0;
+        int plane = client.getPlane();
+        Map<ObjectSpawn, SpawnedObject> previous = new IdentityHashMap<>(spawnedObjects);
+        spawnedObjects.clear();
+
+        int unchangedObjects = 0;
+        int movedObjects = 0;
+        int spawnedCount = 0;
 
         for (Map.Entry<Integer, RoomPosition> entry : roomsByIndex.entrySet()) {
             Integer roomIndex = entry.getKey();
@@ -93,18 +129,14 @@ public class ObjectSpawnService {
             
             log.debug("Room {} at ({},{}) has {} objects", roomIndex, room.getX(), room.getY(), room.getObjects().size());
 
-            // Remove existing objects for this room (in case it moved)
-            removeRoomObjects(roomIndex);
-            
-            // Create new list for this room's objects
-            List<RuneLiteObject> roomObjects = new ArrayList<>();
-            
             int zoneX = room.getX();
             int zoneY = room.getY();
 
             for (ObjectSpawn objectSpawn : room.getObjects()) {
-                totalObjects++;
-                
+                if (spawnedObjects.containsKey(objectSpawn)) {
+                    continue;
+                }
+
                 // Convert zone and tile coordinates to local point
                 LocalPoint localPoint = ZoneTileUtil.zoneTileCoordsToLocalPoint(
                     zoneX, zoneY, 
@@ -117,52 +149,51 @@ public class ObjectSpawnService {
                         zoneX, zoneY, objectSpawn.getTileX(), objectSpawn.getTileY(), objectSpawn.getGameval());
                     continue;
                 }
-                
-                log.debug("Converting object {} at zone ({},{}), tile ({},{}) to local point ({},{})", 
-                    objectSpawn.getGameval(), zoneX, zoneY, objectSpawn.getTileX(), objectSpawn.getTileY(),
-                    localPoint.getX(), localPoint.getY());
+
+                SpawnedObject existing = previous.remove(objectSpawn);
+                if (existing != null && Objects.equals(existing.gameval, objectSpawn.getGameval())) {
+                    RuneLiteObject obj = existing.runeLiteObject;
+                    if (localPoint.equals(obj.getLocation()) && obj.getLevel() == plane
+                        && obj.getOrientation() == objectSpawn.getOrientation()) {
+                        unchangedObjects++;
+                    } else {
+                        obj.setLocation(localPoint, plane);
+                        obj.setOrientation(objectSpawn.getOrientation());
+                        movedObjects++;
+                    }
+                    spawnedObjects.put(objectSpawn, existing);
+                    continue;
+                }
+                if (existing != null) {
+                    remove(existing);
+                }
 
                 // Spawn the object
                 RuneLiteObject obj = spawnObject(objectSpawn, localPoint);
                 if (obj != null) {
-                    roomObjects.add(obj);
-                    spawnedObjects++;
+                    spawnedObjects.put(objectSpawn, new SpawnedObject(obj, objectSpawn.getGameval()));
+                    spawnedCount++;
                 }
             }
-            
-            // Store objects for this room
-            if (!roomObjects.isEmpty()) {
-                spawnedObjectsByRoom.put(roomIndex, roomObjects);
-            }
         }
-        
-        log.info("Loaded {} objects from rooms (spawned {})", totalObjects, spawnedObjects);
-        return spawnedObjects;
-    }
-    
-    /**
-     * Remove all objects for a room
-     * @param roomIndex The room index
-     */
-    public void removeRoomObjects(Integer roomIndex) {
-        List<RuneLiteObject> objects = spawnedObjectsByRoom.remove(roomIndex);
-        if (objects != null) {
-            for (RuneLiteObject obj : objects) {
-                if (obj != null && obj.isActive()) {
-                    client.removeRuneLiteObject(obj);
-                }
-            }
-            log.debug("Removed {} objects from room index {}", objects.size(), roomIndex);
+
+        // Whatever is left belongs to deleted objects or rooms
+        for (SpawnedObject removed : previous.values()) {
+            remove(removed);
         }
+
+        log.info("Loaded objects from rooms: {} unchanged, {} moved, {} spawned, {} removed",
+            unchangedObjects, movedObjects, spawnedCount, previous.size());
+        return spawnedCount;
     }
-    
+
     /**
-     * Remove all objects for multiple rooms
-     * @param roomIndices List of room indices
+     * Take over an object spawned elsewhere, such as one just placed in edit mode, so later loads keep it
      */
-    public void removeRoomObjects(List<Integer> roomIndices) {
-        for (Integer roomIndex : roomIndices) {
-            removeRoomObjects(roomIndex);
+    public void trackObject(ObjectSpawn objectSpawn, RuneLiteObject runeLiteObject) {
+        SpawnedObject previous = spawnedObjects.put(objectSpawn, new SpawnedObject(runeLiteObject, objectSpawn.getGameval()));
+        if (previous != null && previous.runeLiteObject != runeLiteObject) {
+            remove(previous);
         }
     }
     
@@ -170,10 +201,26 @@ public class ObjectSpawnService {
      * Clear all spawned objects
      */
     public void clearAllObjects() {
-        for (Integer roomIndex : new ArrayList<>(spawnedObjectsByRoom.keySet())) {
-            removeRoomObjects(roomIndex);
+        for (SpawnedObject spawnedObject : spawnedObjects.values()) {
+            remove(spawnedObject);
         }
-        spawnedObjectsByRoom.clear();
+        spawnedObjects.clear();
     }
-}
 
+    private void remove(SpawnedObject spawnedObject) {
+        RuneLiteObject obj = spawnedObject.runeLiteObject;
+        if (obj != null && obj.isActive()) {
+            client.removeRuneLiteObject(obj);
+        }
+    }
+
+    private static final class SpawnedObject {
+        private final RuneLiteObject runeLiteObject;
+        private final String gameval;
+
+        private SpawnedObject(RuneLiteObject runeLiteObject, String gameval) {
+            this.runeLiteObject = runeLiteObject;
+            this.gameval = gameval;
+        }
+    }
+}
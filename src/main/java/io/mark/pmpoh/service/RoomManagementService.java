@@ -41,35 +41,18 @@ public class RoomManagementService {
     }
 
     /**
-     * Process the current batch of rooms
-     * @return List of room indices that had objects removed (for cleanup)
+     * Process the current batch of rooms and save the result
      */
-    public List<Integer> processRoomBatch() {
+    public void processRoomBatch() {
         Map<Integer, RoomPosition> oldState = new HashMap<>(roomsByIndex);
         RoomPositionUtil.ProcessResult result = RoomPositionUtil.processRoomBatch(oldState, currentBatch);
 
-        List<Integer> roomsToCleanup = new ArrayList<>();
-
-        for (RoomPositionUtil.RoomMove move : result.getMovedRooms()) {
-            oldState.entrySet().stream()
-                .filter(e -> e.getValue() == move.getOldRoom())
-                .findFirst()
-                .ifPresent(e -> roomsToCleanup.add(e.getKey()));
-        }
-
-        Set<RoomPosition> newRooms = new HashSet<>(result.getUpdatedRooms().values());
-        oldState.entrySet().stream()
-            .filter(e -> !newRooms.contains(e.getValue()))
-            .forEach(e -> roomsToCleanup.add(e.getKey()));
-
         roomsByIndex.clear();
         roomsByIndex.putAll(result.getUpdatedRooms());
 
         saveRooms();
         logRoomChanges(result, oldState);
         currentBatch.clear();
-        
-        return roomsToCleanup;
     }
     
     /**
@@ -0,0 +1,327 @@
+package io.mark.pmpoh.service;
+
+import io.mark.pmpoh.objects.ObjectManager;
+import io.mark.pmpoh.objects.ObjectType;
+import io.mark.pmpoh.util.ModelThumbnailRenderer;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Model;
+import net.runelite.client.callback.ClientThread;
+
+import javax.imageio.ImageIO;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Object thumbnails for the object browser.
+ *
+ * Thumbnails are requested by the list renderer, so only rows that are actually painted ask for one.
+ * A single background thread serves the newest requests first: it reads the PNG from the disk cache, or
+ * loads the model on the client thread and renders it with {@link ModelThumbnailRenderer}, then writes the
+ * PNG for next time. Requests that scrolled out of view long ago are dropped. Disk thumbnails live under
+ * ~/.runelite/pimp-my-poh/thumbnails/&lt;catalog hash&gt;-v&lt;render version&gt;/&lt;gameval&gt;.png, so a catalog
+ * update or a rendering change starts a fresh set and the old one is removed.
+ */
+@Slf4j
+@Singleton
+public class ThumbnailService {
+
+    public static final int THUMBNAIL_SIZE = 24;
+
+    private static final String SAVE_DIR = "pimp-my-poh";
+    private static final String THUMBNAIL_DIR = "thumbnails";
+    private static final int HASH_DIR_LENGTH = 16;
+    // Bump whenever thumbnails of the same catalog would look different, so stale ones are pruned
+    private static final int RENDER_VERSION = 2;
+    private static final int MAX_MEMORY_THUMBNAILS = 512;
+    // Roughly a few screens of rows; anything older has scrolled away
+    private static final int MAX_QUEUED_REQUESTS = 64;
+    private static final long MODEL_LOAD_TIMEOUT_SECONDS = 5;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private ClientThread clientThread;
+
+    @Inject
+    private ObjectManager objectManager;
+
+    // Keyed by catalog hash + gameval; guarded by itself
+    private final Map<String, ImageIcon> memoryCache = new LinkedHashMap<String, ImageIcon>(MAX_MEMORY_THUMBNAILS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageIcon> eldest) {
+            return size() > MAX_MEMORY_THUMBNAILS;
+        }
+    };
+
+    // Requests waiting for the worker, newest last; guarded by itself together with the two sets
+    private final Deque<Request> queue = new ArrayDeque<>();
+    private final Set<String> pending = new HashSet<>();
+    private final Set<String> unavailable = new HashSet<>(); // Objects without a model or with no visible faces
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pmpoh-thumbnails");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // Callbacks of thumbnails asked for before the catalog hash was known, run once it is; guarded by itself
+    private final Deque<Runnable> waitingForHash = new ArrayDeque<>();
+    private boolean listeningForHash;
+
+    private volatile String prunedForHash;
+
+    /**
+     * The thumbnail of an object, if it is ready. Otherwise it is queued and onLoaded runs on the EDT once it is;
+     * until the catalog hash is known, onLoaded instead runs once it is, so the caller can ask again.
+     * @return The thumbnail, or null while it is loading or if the object has none
+     */
+    public ImageIcon getThumbnail(String gameval, Runnable onLoaded) {
+        String catalogHash = objectManager.getCatalogHash();
+        if (catalogHash == null) {
+            waitForHash(onLoaded);
+            return null;
+        }
+
+        String key = cacheKey(catalogHash, gameval);
+        synchronized (memoryCache) {
+            ImageIcon thumbnail = memoryCache.get(key);
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+        }
+
+        synchronized (queue) {
+            if (unavailable.contains(key) || !pending.add(key)) {
+                return null;
+            }
+            queue.addLast(new Request(catalogHash, gameval, key, onLoaded));
+            while (queue.size() > MAX_QUEUED_REQUESTS) {
+                pending.remove(queue.removeFirst().key);
+            }
+        }
+        worker.execute(this::processNewest);
+        return null;
+    }
+
+    /**
+     * Run onLoaded once the catalog hash is known, so rows painted before it ask for their thumbnail again
+     */
+    private void waitForHash(Runnable onLoaded) {
+        synchronized (waitingForHash) {
+            if (!listeningForHash) {
+                objectManager.addCatalogHashListener(this::catalogHashReady);
+                listeningForHash = true;
+            }
+            waitingForHash.addLast(onLoaded);
+            while (waitingForHash.size() > MAX_QUEUED_REQUESTS) {
+                waitingForHash.removeFirst();
+            }
+        }
+
+        // The hash may have been published between the caller's check and the callback being queued
+        if (objectManager.getCatalogHash() != null) {
+            catalogHashReady();
+        }
+    }
+
+    private void catalogHashReady() {
+        synchronized (waitingForHash) {
+            while (!waitingForHash.isEmpty()) {
+                SwingUtilities.invokeLater(waitingForHash.removeFirst());
+            }
+        }
+    }
+
+    private void processNewest() {
+        Request request;
+        synchronized (queue) {
+            request = queue.pollLast();
+        }
+        if (request == null) {
+            return;
+        }
+
+        boolean loaded = false;
+        try {
+            pruneOldCatalogs(request.catalogHash);
+            BufferedImage image = loadOrRender(request);
+            if (image != null) {
+                synchronized (memoryCache) {
+                    memoryCache.put(request.key, new ImageIcon(image));
+                }
+                loaded = true;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to create thumbnail for {}", request.gameval, e);
+        } finally {
+            synchronized (queue) {
+                pending.remove(request.key);
+            }
+        }
+
+        if (loaded) {
+            SwingUtilities.invokeLater(request.onLoaded);
+        }
+    }
+
+    private BufferedImage loadOrRender(Request request) throws IOException {
+        File file = thumbnailFile(request.catalogHash, request.gameval);
+        if (file.isFile()) {
+            BufferedImage cached = ImageIO.read(file);
+            if (cached != null) {
+                return cached;
+            }
+            log.debug("Ignoring unreadable thumbnail {}", file.getName());
+        }
+
+        ModelThumbnailRenderer.Snapshot snapshot = loadSnapshot(request);
+        if (snapshot == null) {
+            return null;
+        }
+
+        BufferedImage image = ModelThumbnailRenderer.render(snapshot, THUMBNAIL_SIZE);
+        if (image == null) {
+            markUnavailable(request);
+            return null;
+        }
+
+        Path target = file.toPath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        ImageIO.write(image, "png", temp.toFile());
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return image;
+    }
+
+    /**
+     * Load and light the model on the client thread, one at a time so thumbnails never stall a frame for long
+     * @return The model's snapshot, or null if it could not be loaded now
+     */
+    private ModelThumbnailRenderer.Snapshot loadSnapshot(Request request) {
+        CompletableFuture<ModelThumbnailRenderer.Snapshot> future = new CompletableFuture<>();
+        clientThread.invoke(() -> {
+            try {
+                // The model cache is not available before the client reaches the login screen
+                if (client.getGameState().getState() < GameState.LOGIN_SCREEN.getState()) {
+                    future.complete(null);
+                    return;
+                }
+
+                ObjectType objectType = objectManager.getByGameval(request.gameval);
+                Model model = objectType != null ? objectType.loadLitModel(client) : null;
+                if (model == null) {
+                    markUnavailable(request);
+                    future.complete(null);
+                    return;
+                }
+                future.complete(ModelThumbnailRenderer.snapshot(model));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return future.get(MODEL_LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.debug("Could not load model for thumbnail of {}", request.gameval, e);
+            return null;
+        }
+    }
+
+    private void markUnavailable(Request request) {
+        synchronized (queue) {
+            unavailable.add(request.key);
+        }
+    }
+
+    /**
+     * Delete thumbnails rendered for other catalog versions, once per catalog
+     */
+    private void pruneOldCatalogs(String catalogHash) {
+        if (catalogHash.equals(prunedForHash)) {
+            return;
+        }
+        prunedForHash = catalogHash;
+
+        Path root = thumbnailRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        String current = hashDirectory(catalogHash);
+        try (Stream<Path> directories = Files.list(root)) {
+            directories.filter(dir -> Files.isDirectory(dir) && !dir.getFileName().toString().equals(current))
+                .forEach(ThumbnailService::deleteDirectory);
+        } catch (IOException e) {
+            log.warn("Failed to prune old thumbnails", e);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().delete());
+            Files.deleteIfExists(directory);
+            log.debug("Deleted thumbnails of old catalog {}", directory.getFileName());
+        } catch (IOException e) {
+            log.warn("Failed to delete old thumbnails in {}", directory, e);
+        }
+    }
+
+    private static File thumbnailFile(String catalogHash, String gameval) {
+        // Gamevals are identifiers, but keep the file name safe regardless
+        String fileName = gameval.replaceAll("[^A-Za-z0-9_-]", "_") + ".png";
+        return thumbnailRoot().resolve(hashDirectory(catalogHash)).resolve(fileName).toFile();
+    }
+
+    private static Path thumbnailRoot() {
+        return Paths.get(System.getProperty("user.home"), ".runelite", SAVE_DIR, THUMBNAIL_DIR);
+    }
+
+    private static String hashDirectory(String catalogHash) {
+        return catalogHash.substring(0, Math.min(HASH_DIR_LENGTH, catalogHash.length())) + "-v" + RENDER_VERSION;
+    }
+
+    private static String cacheKey(String catalogHash, String gameval) {
+        return catalogHash + '/' + gameval;
+    }
+
+    private static final class Request {
+        private final String catalogHash;
+        private final String gameval;
+        private final String key;
+        private final Runnable onLoaded;
+
+        private Request(String catalogHash, String gameval, String key, Runnable onLoaded) {
+            this.catalogHash = catalogHash;
+            this.gameval = gameval;
+            this.key = key;
+            this.onLoaded = onLoaded;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import io.mark.pmpoh.objects.ObjectManager;
 import io.mark.pmpoh.objects.ObjectType;
 import io.mark.pmpoh.poh.ObjectSpawn;
 import io.mark.pmpoh.poh.RoomPosition;
+import io.mark.pmpoh.service.ObjectSpawnService;
 import io.mark.pmpoh.service.RoomManagementService;
 import io.mark.pmpoh.tooling.ActionType;
 import io.mark.pmpoh.tooling.BrushType;
@@ -63,6 +64,9 @@ public class ObjectAction implements MouseListener, KeyListener
     @Inject
     private RoomManagementService roomManagementService;
 
+    @Inject
+    private ObjectSpawnService objectSpawnService;
+
     @Inject
     private net.runelite.client.plugins.PluginManager pluginManager;
 
@@ -193,26 +197,31 @@ public class ObjectAction implements MouseListener, KeyListener
         if (model != null) {
             runeLiteObject.setModel(model);
         }
+        objectSpawnService.applyAnimation(runeLiteObject, objectType);
 
         runeLiteObject.setOrientation(orientation);
         runeLiteObject.setLocation(localPoint, 0);
         runeLiteObject.setActive(true);
         client.registerRuneLiteObject(runeLiteObject);
 
-        // Save object to room
-        saveObjectToRoom(localPoint, selectedGameval, orientation);
+        // Save object to room, and hand it to the spawn service so room updates move it instead of duplicating it
+        ObjectSpawn objectSpawn = saveObjectToRoom(localPoint, selectedGameval, orientation);
+        if (objectSpawn != null) {
+            objectSpawnService.trackObject(objectSpawn, runeLiteObject);
+        }
     }
 
     /**
      * Save object to room position with tile coordinates
+     * @return The saved object, or null if there is no room at that location
      */
-    private void saveObjectToRoom(LocalPoint localPoint, String gameval, int orientation) {
+    private ObjectSpawn saveObjectToRoom(LocalPoint localPoint, String gameval, int orientation) {
         // Convert local point to zone and tile coordinates (uses cached bounds)
         int[] zoneTile = ZoneTileUtil.localPointToZoneTile(localPoint);
         if (zoneTile == null || zoneTile.length < 3) {
             log.warn("Failed to convert local point to zone/tile coordinates. LocalPoint: ({}, {})", 
                     localPoint.getX(), localPoint.getY());
-            return;
+            return null;
         }
 
         int zoneX = zoneTile[0];
@@ -228,7 +237,7 @@ public class ObjectAction implements MouseListener, KeyListener
         if (room == null) {
             log.error("No room found at zone ({}, {}). Cannot save object. Available rooms: {}", 
                     zoneX, zoneY, roomManagementService.getRoomsByIndex().size());
-            return;
+            return null;
         }
 
         // Create ObjectSpawn with tile coordinates
@@ -255,6 +264,7 @@ public class ObjectAction implements MouseListener, KeyListener
         } catch (Exception e) {
             log.error("Failed to save rooms after placing object {}", gameval, e);
         }
+        return objectSpawn;
     }
 
     /**
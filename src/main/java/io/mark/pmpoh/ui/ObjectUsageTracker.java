@@ -0,0 +1,169 @@
+package io.mark.pmpoh.ui;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How often and how recently each object was picked, kept as exponentially decaying scores.
+ * Every pick adds one to the object's score, and a score halves for every {@link #HALF_LIFE_MILLIS} the object
+ * goes unused. Objects picked often stay on top through long sessions, while one-off picks fade out.
+ *
+ * Not thread-safe; owned by the EDT.
+ */
+final class ObjectUsageTracker {
+
+    static final long HALF_LIFE_MILLIS = TimeUnit.DAYS.toMillis(3);
+    private static final int MAX_TRACKED_OBJECTS = 200;
+    private static final int FORMAT_VERSION = 2;
+
+    // Boost for a score of 1, and the cap, as used by the search ranking
+    private static final double BOOST_PER_DOUBLING = 32;
+    private static final int MAX_BOOST = 255;
+
+    private final Map<String, Usage> usages = new HashMap<>();
+
+    /**
+     * Count one pick of the object
+     */
+    void recordUse(String gameval, long now) {
+        Usage usage = usages.get(gameval);
+        if (usage == null) {
+            usages.put(gameval, new Usage(1, now));
+            evictLowest(now);
+        } else {
+            usage.score = usage.scoreAt(now) + 1;
+            usage.lastUsed = now;
+        }
+    }
+
+    /**
+     * The highest scoring objects, best first
+     */
+    List<String> topObjects(int limit, long now) {
+        List<Map.Entry<String, Usage>> entries = new ArrayList<>(usages.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().scoreAt(now), a.getValue().scoreAt(now)));
+
+        List<String> top = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            top.add(entries.get(i).getKey());
+        }
+        return top;
+    }
+
+    /**
+     * Search ranking boost of every tracked object, from 1 to 255, growing with the log of its score
+     */
+    Map<String, Integer> boosts(long now) {
+        Map<String, Integer> boosts = new HashMap<>();
+        for (Map.Entry<String, Usage> entry : usages.entrySet()) {
+            double doublings = Math.log(1 + entry.getValue().scoreAt(now)) / Math.log(2);
+            int boost = (int) Math.min(MAX_BOOST, Math.round(doublings * BOOST_PER_DOUBLING));
+            if (boost > 0) {
+                boosts.put(entry.getKey(), boost);
+            }
+        }
+        return Collections.unmodifiableMap(boosts);
+    }
+
+    int size() {
+        return usages.size();
+    }
+
+    private void evictLowest(long now) {
+        while (usages.size() > MAX_TRACKED_OBJECTS) {
+            String lowest = null;
+            double lowestScore = Double.MAX_VALUE;
+            for (Map.Entry<String, Usage> entry : usages.entrySet()) {
+                double score = entry.getValue().scoreAt(now);
+                if (score < lowestScore) {
+                    lowest = entry.getKey();
+                    lowestScore = score;
+                }
+            }
+            usages.remove(lowest);
+        }
+    }
+
+    String toJson(Gson gson) {
+        SavedUsages saved = new SavedUsages();
+        saved.version = FORMAT_VERSION;
+        saved.objects = new ArrayList<>(usages.size());
+        for (Map.Entry<String, Usage> entry : usages.entrySet()) {
+            SavedUsage usage = new SavedUsage();
+            usage.gameval = entry.getKey();
+            usage.score = entry.getValue().score;
+            usage.lastUsed = entry.getValue().lastUsed;
+            saved.objects.add(usage);
+        }
+        return gson.toJson(saved);
+    }
+
+    /**
+     * Read saved usage, also accepting the old format: a plain list of gamevals, oldest first.
+     * Old entries become single uses spaced a second apart, which keeps their order.
+     */
+    static ObjectUsageTracker fromJson(Gson gson, JsonElement json, long now) {
+        ObjectUsageTracker tracker = new ObjectUsageTracker();
+        if (json == null || json.isJsonNull()) {
+            return tracker;
+        }
+
+        if (json.isJsonArray()) {
+            JsonArray legacy = json.getAsJsonArray();
+            for (int i = 0; i < legacy.size(); i++) {
+                long lastUsed = now - TimeUnit.SECONDS.toMillis(legacy.size() - i);
+                tracker.usages.put(legacy.get(i).getAsString(), new Usage(1, lastUsed));
+            }
+        } else if (json.isJsonObject()) {
+            SavedUsages saved = gson.fromJson((JsonObject) json, SavedUsages.class);
+            if (saved.objects != null) {
+                for (SavedUsage usage : saved.objects) {
+                    if (usage.gameval != null && usage.score > 0) {
+                        tracker.usages.put(usage.gameval, new Usage(usage.score, usage.lastUsed));
+                    }
+                }
+            }
+        } else {
+            throw new JsonParseException("Unexpected usage data: " + json);
+        }
+
+        tracker.evictLowest(now);
+        return tracker;
+    }
+
+    private static final class Usage {
+        private double score; // as of lastUsed
+        private long lastUsed;
+
+        private Usage(double score, long lastUsed) {
+            this.score = score;
+            this.lastUsed = lastUsed;
+        }
+
+        private double scoreAt(long now) {
+            long elapsed = Math.max(0, now - lastUsed);
+            return score * Math.pow(0.5, (double) elapsed / HALF_LIFE_MILLIS);
+        }
+    }
+
+    private static final class SavedUsages {
+        private int version;
+        private List<SavedUsage> objects;
+    }
+
+    private static final class SavedUsage {
+        private String gameval;
+        private double score;
+        private long lastUsed;
+    }
+}
@@ -3,10 +3,19 @@ package io.mark.pmpoh.ui;
 import com.google.common.base.Strings;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
 import io.mark.pmpoh.PimpMyPohPlugin;
+import io.mark.pmpoh.objects.CatalogEntryList;
+import io.mark.pmpoh.objects.ObjectCatalog;
+import io.mark.pmpoh.objects.ObjectCategory;
 import io.mark.pmpoh.objects.ObjectManager;
+import io.mark.pmpoh.objects.ObjectSearchIndex;
 import io.mark.pmpoh.objects.ObjectType;
+import io.mark.pmpoh.service.ObjectSearchService;
+import io.mark.pmpoh.service.ThumbnailService;
+import io.mark.pmpoh.util.CoalescingFileWriter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.plugins.config.ConfigPlugin;
 import net.runelite.client.ui.ColorScheme;
@@ -15,6 +24,7 @@ import net.runelite.client.util.ImageUtil;
 
 import javax.inject.Inject;
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
@@ -23,6 +33,8 @@ import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
@@ -30,7 +42,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Panel for displaying and selecting objects to place
@@ -38,22 +51,30 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ObjectsListPanel extends JPanel {
     
-    private static final int ENTRIES_PER_PAGE = 100;
     private static final int MAX_RECENT_OBJECTS = 50;
     private static final String SAVE_DIR = "pimp-my-poh";
     private static final String RECENT_OBJECTS_FILE = "recent-objects.json";
     private static final String FAVORITES_OBJECTS_FILE = "favorites-objects.json";
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    private static final int FUZZY_RESULT_LIMIT = 200;
+
+    // Shared by every panel instance, so writes to the same file are never interleaved
+    private static final CoalescingFileWriter SAVE_WRITER = new CoalescingFileWriter("pmpoh-save-writer");
+
     
     private final ObjectManager objectManager;
     private final PimpMyPohPlugin plugin;
+    private final ThumbnailService thumbnailService;
+    private final ObjectSearchService searchService;
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     
-    private int currentPage = 0;
-    private JLabel pageLabel;
-    private JTextField pageInput;
+    private JLabel resultCountLabel;
     private JScrollPane scrollPane;
-    private JPanel objectsContainer;
-    private ObjectListSlot selectedSlot;
+    private JList<Map.Entry<String, ObjectType>> objectList;
+    private final ObjectListModel objectListModel = new ObjectListModel();
+    private ObjectListSlot cellSlot; // Shared by every row the list paints
+    private String selectedGameval;
+    private int hoveredIndex = -1;
     private IconTextField searchBar;
     private JComboBox<String> searchModeDropdown;
     private JComboBox<String> filterDropdown;
@@ -63,14 +84,28 @@ public class ObjectsListPanel extends JPanel {
     private String searchQuery = "";
     private String searchMode = "gameval"; // "gameval", "name", or "id"
     private String currentTab = "all"; // "all", "recent", or "favorites"
-    private final LinkedHashSet<String> recentObjects = new LinkedHashSet<>(); // Maintains insertion order, no duplicates
+    private ObjectUsageTracker usageTracker = new ObjectUsageTracker(); // Ranks the Recent tab and boosts search results
+    private Map<String, Integer> usageBoosts = Collections.emptyMap(); // Immutable, replaced whenever usage changes
     private final LinkedHashSet<String> favoriteObjects = new LinkedHashSet<>(); // Maintains insertion order, no duplicates
     private ImageIcon favoriteIcon; // Icon to show next to favorited items
+
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private Future<?> pendingSearch;
+    private Timer searchDebounceTimer;
+    private JLabel searchLatencyLabel; // Dev mode only
+
+    // Usage boosts resolved against a catalog, cached by the search thread
+    private ObjectCatalog boostCatalog;
+    private Map<String, Integer> boostSource;
+    private int[] boostsByIndex;
     
     @Inject
-    public ObjectsListPanel(ObjectManager objectManager, PimpMyPohPlugin plugin) {
+    public ObjectsListPanel(ObjectManager objectManager, PimpMyPohPlugin plugin, ThumbnailService thumbnailService,
+                            ObjectSearchService searchService) {
         this.objectManager = objectManager;
         this.plugin = plugin;
+        this.thumbnailService = thumbnailService;
+        this.searchService = searchService;
         
         setLayout(new BorderLayout());
         setBackground(ColorScheme.DARK_GRAY_COLOR);
@@ -103,19 +138,16 @@ public class ObjectsListPanel extends JPanel {
         // Top bar
         JPanel topPanel = createTopPanel();
         
-        // Bottom pagination
+        // Bottom result count
         JPanel bottomPanel = createBottomPanel();
         
         // Create tab buttons above the list
         JPanel tabsPanel = createTabsPanel();
         
-        // Create scrollable objects list panel
-        objectsContainer = new JPanel();
-        objectsContainer.setLayout(new BoxLayout(objectsContainer, BoxLayout.Y_AXIS));
-        objectsContainer.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        objectsContainer.setBorder(new EmptyBorder(5, 5, 5, 5));
+        // Create scrollable objects list; only the visible rows are ever rendered
+        objectList = createObjectList();
 
-        scrollPane = new JScrollPane(objectsContainer);
+        scrollPane = new JScrollPane(objectList);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.setBorder(null);
@@ -131,8 +163,12 @@ public class ObjectsListPanel extends JPanel {
         add(listPanel, BorderLayout.CENTER);
         add(bottomPanel, BorderLayout.SOUTH);
 
-        // Initial page load
-        updatePage();
+        // Coalesce keystrokes: the query only runs once typing pauses
+        searchDebounceTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> refreshResults());
+        searchDebounceTimer.setRepeats(false);
+
+        // Initial load
+        refreshResults();
     }
     
     private JPanel createTopPanel() {
@@ -181,11 +217,10 @@ public class ObjectsListPanel extends JPanel {
             }
         });
         
-        searchBar.addActionListener(e -> updatePage());
+        searchBar.addActionListener(e -> refreshResults());
         searchBar.addClearListener(() -> {
             searchQuery = "";
-            currentPage = 0;
-            updatePage();
+            refreshResults();
         });
         
         // Real-time search as user types
@@ -212,8 +247,7 @@ public class ObjectsListPanel extends JPanel {
             private void updateSearch() {
                 String text = searchBar.getText();
                 searchQuery = (text != null && !text.trim().isEmpty()) ? text.toLowerCase() : "";
-                currentPage = 0;
-                updatePage();
+                searchDebounceTimer.restart();
             }
         });
         
@@ -236,7 +270,7 @@ public class ObjectsListPanel extends JPanel {
                         searchBar.setText(text.replaceAll("[^0-9]", ""));
                     }
                 }
-                updatePage();
+                refreshResults();
             }
         });
         
@@ -248,10 +282,7 @@ public class ObjectsListPanel extends JPanel {
         filterDropdown.setBackground(ColorScheme.DARKER_GRAY_COLOR);
         filterDropdown.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
         filterDropdown.setFocusable(false);
-        filterDropdown.addActionListener(e -> {
-            // Filter functionality will be implemented later
-            updatePage();
-        });
+        filterDropdown.addActionListener(e -> refreshResults());
         
         // Search bar and mode dropdown container
         JPanel searchContainer = new JPanel(new BorderLayout(5, 0));
@@ -318,9 +349,8 @@ public class ObjectsListPanel extends JPanel {
     
     private void switchTab(String tab) {
         currentTab = tab;
-        currentPage = 0;
         updateTabButtons();
-        updatePage();
+        refreshResults();
     }
     
     private void updateTabButtons() {
@@ -345,270 +375,359 @@ public class ObjectsListPanel extends JPanel {
         }
     }
     
-    private JPanel createBottomPanel() {
-        JPanel bottomPanel = new JPanel(new BorderLayout());
-        bottomPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        bottomPanel.setBorder(new EmptyBorder(5, 5, 5, 5));
+    private JList<Map.Entry<String, ObjectType>> createObjectList() {
+        JList<Map.Entry<String, ObjectType>> list = new JList<>(objectListModel);
+        list.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        list.setBorder(new EmptyBorder(5, 5, 5, 5));
+        list.setFocusable(false);
+        list.setCursor(new Cursor(Cursor.HAND_CURSOR));
 
-        pageLabel = new JLabel();
-        pageLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
-        pageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        // Selection, favorites and hover are tracked here rather than in the list's selection model,
+        // so the renderer reads them from the panel
+        cellSlot = new ObjectListSlot(favoriteIcon);
+        list.setCellRenderer((l, entry, index, isSelected, cellHasFocus) -> {
+            String gameval = entry.getKey();
+            // Only painted rows get here, so only visible objects request a thumbnail
+            return cellSlot.prepare(
+                    gameval,
+                    thumbnailService.getThumbnail(gameval, list::repaint),
+                    "all".equals(currentTab), // Only show icon in "all" tab
+                    favoriteObjects.contains(gameval),
+                    gameval.equals(selectedGameval),
+                    index == hoveredIndex);
+        });
 
-        JPanel pageInfoPanel = new JPanel(new BorderLayout());
-        pageInfoPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
-        pageInfoPanel.add(pageLabel, BorderLayout.CENTER);
+        // Rows share one size, so measure a single prototype instead of every entry
+        list.setPrototypeCellValue(new AbstractMap.SimpleImmutableEntry<>("PROTOTYPE", null));
 
-        JPanel paginationPanel = new JPanel();
-        paginationPanel.setLayout(new BoxLayout(paginationPanel, BoxLayout.X_AXIS));
-        paginationPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        MouseAdapter mouseListener = new MouseAdapter()
+        {
+            @Override
+            public void mouseMoved(MouseEvent e)
+            {
+                setHoveredIndex(rowAt(e.getPoint()));
+            }
 
-        JButton prevButton = new JButton("Previous");
-        prevButton.addActionListener(e -> {
-            if (currentPage > 0) {
-                currentPage--;
-                updatePage();
+            @Override
+            public void mouseExited(MouseEvent e)
+            {
+                setHoveredIndex(-1);
             }
-        });
 
-        pageInput = new JTextField(5);
-        pageInput.setHorizontalAlignment(JTextField.CENTER);
-        pageInput.addActionListener(e -> {
-            try {
-                int page = Integer.parseInt(pageInput.getText()) - 1;
-                List<Map.Entry<String, ObjectType>> allObjects = getFilteredObjects();
-                int totalPages = Math.max(1, (int) Math.ceil((double) allObjects.size() / ENTRIES_PER_PAGE));
-                
-                if (page >= 0 && page < totalPages) {
-                    currentPage = page;
-                    updatePage();
-                } else {
-                    pageInput.setText(String.valueOf(currentPage + 1));
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int row = rowAt(e.getPoint());
+                if (SwingUtilities.isLeftMouseButton(e) && row >= 0)
+                {
+                    toggleSelection(objectListModel.getElementAt(row).getKey());
                 }
-            } catch (NumberFormatException ex) {
-                pageInput.setText(String.valueOf(currentPage + 1));
             }
-        });
 
-        JButton nextButton = new JButton("Next");
-        nextButton.addActionListener(e -> {
-            List<Map.Entry<String, ObjectType>> allObjects = getFilteredObjects();
-            int totalPages = Math.max(1, (int) Math.ceil((double) allObjects.size() / ENTRIES_PER_PAGE));
-            if (currentPage < totalPages - 1) {
-                currentPage++;
-                updatePage();
+            @Override
+            public void mousePressed(MouseEvent e)
+            {
+                showContextMenu(e);
             }
-        });
 
-        paginationPanel.add(Box.createHorizontalGlue());
-        paginationPanel.add(prevButton);
-        paginationPanel.add(Box.createHorizontalStrut(10));
-        paginationPanel.add(pageInput);
-        paginationPanel.add(Box.createHorizontalStrut(10));
-        paginationPanel.add(nextButton);
-        paginationPanel.add(Box.createHorizontalGlue());
+            @Override
+            public void mouseReleased(MouseEvent e)
+            {
+                showContextMenu(e);
+            }
+        };
+        list.addMouseListener(mouseListener);
+        list.addMouseMotionListener(mouseListener);
+
+        return list;
+    }
+
+    /**
+     * @return The row under the point, or -1 if the point is below the last row
+     */
+    private int rowAt(Point point) {
+        int row = objectList.locationToIndex(point);
+        if (row < 0 || !objectList.getCellBounds(row, row).contains(point)) {
+            return -1;
+        }
+        return row;
+    }
+
+    private void setHoveredIndex(int row) {
+        if (row == hoveredIndex) {
+            return;
+        }
+        repaintRow(hoveredIndex);
+        hoveredIndex = row;
+        repaintRow(hoveredIndex);
+    }
+
+    private void repaintRow(int row) {
+        if (row >= 0 && row < objectListModel.getSize()) {
+            Rectangle bounds = objectList.getCellBounds(row, row);
+            if (bounds != null) {
+                objectList.repaint(bounds);
+            }
+        }
+    }
+
+    private void showContextMenu(MouseEvent e) {
+        int row = rowAt(e.getPoint());
+        if (!SwingUtilities.isRightMouseButton(e) || row < 0) {
+            return;
+        }
+
+        String gameval = objectListModel.getElementAt(row).getKey();
+        JPopupMenu contextMenu = new JPopupMenu();
+        JMenuItem editMenuItem = new JMenuItem("Edit");
+        contextMenu.add(editMenuItem);
+
+        JMenuItem favoriteMenuItem = new JMenuItem(favoriteObjects.contains(gameval) ? "Remove from Favorites" : "Add to Favorites");
+        favoriteMenuItem.addActionListener(ev -> toggleFavorite(gameval));
+        contextMenu.add(favoriteMenuItem);
+
+        contextMenu.show(objectList, e.getX(), e.getY());
+    }
+
+    private void toggleSelection(String gameval) {
+        // If clicking the already selected object, deselect it
+        if (gameval.equals(selectedGameval)) {
+            selectedGameval = null;
+            // Clear selection in ObjectAction (but don't exit edit mode)
+            plugin.getObjectAction().setSelectedGameval(null);
+            // Remove preview but keep edit mode active
+            plugin.getObjectAction().removePreview();
+        } else {
+            selectedGameval = gameval;
+            // Update ObjectAction with selected gameval
+            plugin.getObjectAction().setSelectedGameval(gameval);
+
+            // Count the pick towards the Recent tab ranking and search boosts
+            long now = System.currentTimeMillis();
+            usageTracker.recordUse(gameval, now);
+            usageBoosts = usageTracker.boosts(now);
+
+            // Save to disk
+            saveRecentObjects();
+        }
+        objectList.repaint();
+    }
+
+    private void toggleFavorite(String gameval) {
+        if (!favoriteObjects.remove(gameval)) {
+            favoriteObjects.add(gameval);
+        }
+        saveFavorites();
+        objectList.repaint();
+    }
+
+    private JPanel createBottomPanel() {
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBackground(ColorScheme.DARK_GRAY_COLOR);
+        bottomPanel.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+        resultCountLabel = new JLabel(" ");
+        resultCountLabel.setForeground(ColorScheme.LIGHT_GRAY_COLOR);
+        resultCountLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        bottomPanel.add(resultCountLabel, BorderLayout.CENTER);
+
+        if (plugin.isDevMode()) {
+            searchLatencyLabel = new JLabel(" ");
+            searchLatencyLabel.setForeground(ColorScheme.MEDIUM_GRAY_COLOR);
+            searchLatencyLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            bottomPanel.add(searchLatencyLabel, BorderLayout.SOUTH);
+        }
 
-        bottomPanel.add(pageInfoPanel, BorderLayout.NORTH);
-        bottomPanel.add(paginationPanel, BorderLayout.SOUTH);
-        
         return bottomPanel;
     }
     
-    private List<Map.Entry<String, ObjectType>> getFilteredObjects() {
-        List<Map.Entry<String, ObjectType>> allObjects;
-        
+    /**
+     * Re-run the current query on the search thread and show its result once it is the latest one.
+     * Queries still queued when a newer one arrives are cancelled; running ones are discarded on completion.
+     */
+    private void refreshResults() {
+        searchDebounceTimer.stop();
+
+        FilterRequest request = new FilterRequest();
+        int generation = searchGeneration.incrementAndGet();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+
+        pendingSearch = searchService.submit(() -> {
+            long queryStart = System.nanoTime();
+            List<Map.Entry<String, ObjectType>> result = getFilteredObjects(request);
+            long queryNanos = System.nanoTime() - queryStart;
+            if (generation != searchGeneration.get()) {
+                return;
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (generation != searchGeneration.get()) {
+                    return;
+                }
+                showResults(result);
+                showSearchLatency(result.size(), queryNanos, System.nanoTime() - request.createdNanos);
+            });
+        });
+    }
+
+    private void showSearchLatency(int results, long queryNanos, long totalNanos) {
+        if (searchLatencyLabel != null) {
+            searchLatencyLabel.setText(String.format("%d results, query %.2f ms, shown after %.1f ms",
+                    results, queryNanos / 1e6, totalNanos / 1e6));
+        }
+    }
+
+    /**
+     * Everything a query depends on, captured on the EDT so the search thread never reads Swing state
+     */
+    private final class FilterRequest {
+        private final long createdNanos = System.nanoTime();
+        private final String query = searchQuery;
+        private final String mode = searchMode;
+        private final String tab = currentTab;
+        private final ObjectCategory category = ObjectCategory.fromDisplayName((String) filterDropdown.getSelectedItem());
+        private final List<String> recent = usageTracker.topObjects(MAX_RECENT_OBJECTS, System.currentTimeMillis());
+        private final Map<String, Integer> boosts = usageBoosts;
+        private final List<String> favorites = new ArrayList<>(favoriteObjects);
+    }
+
+    private List<Map.Entry<String, ObjectType>> getFilteredObjects(FilterRequest request) {
+        ObjectCategory category = request.category;
+
+        // One index snapshot for the whole pass, so every set below refers to the same catalog
+        ObjectSearchIndex index = objectManager.getSearchIndex();
+        ObjectCatalog catalog = index.getCatalog();
+        boolean searching = !Strings.isNullOrEmpty(request.query);
+
         // Get base list based on current tab
-        if ("recent".equals(currentTab)) {
-            // Filter to only show recent objects
-            Map<String, ObjectType> allObjectsMap = new HashMap<>();
-            for (Map.Entry<String, ObjectType> entry : objectManager.getAllObjectsSorted()) {
-                allObjectsMap.put(entry.getKey(), entry.getValue());
+        int[] tabIndices = null;
+        if ("recent".equals(request.tab)) {
+            // Most used first, as ranked by the usage tracker
+            tabIndices = indicesOf(catalog, request.recent);
+        } else if ("favorites".equals(request.tab)) {
+            // Sort favorites by gameval for consistency
+            tabIndices = indicesOf(catalog, new TreeSet<>(request.favorites));
+        }
+
+        if (!searching) {
+            if (tabIndices != null) {
+                return new CatalogEntryList(catalog, category != null ? retain(tabIndices, index.getCategories().members(category)) : tabIndices);
             }
-            // Convert LinkedHashSet to list, maintaining order
-            allObjects = recentObjects.stream()
-                .filter(allObjectsMap::containsKey)
-                .map(gameval -> new AbstractMap.SimpleEntry<>(gameval, allObjectsMap.get(gameval)))
-                .collect(Collectors.toList());
-        } else if ("favorites".equals(currentTab)) {
-            // Filter to only show favorite objects
-            Map<String, ObjectType> allObjectsMap = new HashMap<>();
-            for (Map.Entry<String, ObjectType> entry : objectManager.getAllObjectsSorted()) {
-                allObjectsMap.put(entry.getKey(), entry.getValue());
+            // "all" tab - categories are pre-sorted, so no filtering is needed
+            return category != null ? index.getCategories().sortedEntries(category) : catalog.sortedEntries();
+        }
+
+        int[] matches;
+        if ("id".equals(request.mode)) {
+            try {
+                ObjectType byId = catalog.getById(Integer.parseInt(request.query.trim()));
+                int match = byId != null ? catalog.indexOf(byId.name) : -1;
+                matches = match >= 0 ? new int[]{match} : new int[0];
+            } catch (NumberFormatException e) {
+                matches = new int[0];
             }
-            // Convert LinkedHashSet to list, maintaining order
-            allObjects = favoriteObjects.stream()
-                .filter(allObjectsMap::containsKey)
-                .map(gameval -> new AbstractMap.SimpleEntry<>(gameval, allObjectsMap.get(gameval)))
-                .collect(Collectors.toList());
-            // Sort favorites by gameval for consistency
-            allObjects.sort(Map.Entry.comparingByKey());
         } else {
-            // "all" tab - show all objects
-            allObjects = objectManager.getAllObjectsSorted();
+            // Entries are keyed by ObjectType.name, so gameval and name modes both search the key.
+            // Sparse results are topped up with typo-tolerant matches
+            // Among equally good matches, the objects used most come first
+            matches = index.search(request.query, FUZZY_RESULT_LIMIT, boostsFor(catalog, request.boosts));
         }
-        
-        // Filter by search query if present
-        if (!Strings.isNullOrEmpty(searchQuery)) {
-            switch (searchMode) {
-                case "gameval":
-                    allObjects = allObjects.stream()
-                        .filter(entry -> entry.getKey().toLowerCase().contains(searchQuery))
-                        .collect(Collectors.toList());
-                    break;
-                case "name":
-                    allObjects = allObjects.stream()
-                        .filter(entry -> {
-                            ObjectType obj = entry.getValue();
-                            return obj != null && obj.name != null && obj.name.toLowerCase().contains(searchQuery);
-                        })
-                        .collect(Collectors.toList());
-                    break;
-                case "id":
-                    try {
-                        int searchId = Integer.parseInt(searchQuery);
-                        allObjects = allObjects.stream()
-                            .filter(entry -> entry.getValue() != null && entry.getValue().getId() == searchId)
-                            .collect(Collectors.toList());
-                    } catch (NumberFormatException e) {
-                        allObjects = Collections.emptyList();
-                    }
-                    break;
+
+        // Intersect the ranked matches with the category and tab sets
+        BitSet allowed = category != null ? index.getCategories().members(category) : null;
+        if (tabIndices != null) {
+            BitSet tab = new BitSet(catalog.size());
+            for (int tabIndex : tabIndices) {
+                tab.set(tabIndex);
+            }
+            if (allowed == null) {
+                allowed = tab;
+            } else {
+                allowed.and(tab);
             }
         }
-        
-        return allObjects;
+
+        return new CatalogEntryList(catalog, allowed != null ? retain(matches, allowed) : matches);
     }
-    
-    private void updatePage()
-    {
-        List<Map.Entry<String, ObjectType>> allObjects = getFilteredObjects();
-        int totalPages = Math.max(1, (int) Math.ceil((double) allObjects.size() / ENTRIES_PER_PAGE));
 
-        // Ensure currentPage is within valid range
-        if (currentPage >= totalPages)
-        {
-            currentPage = Math.max(0, totalPages - 1);
+    /**
+     * Usage boosts by catalog index, rebuilt only when the catalog or the usage changed. Search thread only.
+     */
+    private int[] boostsFor(ObjectCatalog catalog, Map<String, Integer> boosts) {
+        if (catalog != boostCatalog || boosts != boostSource) {
+            int[] byIndex = new int[catalog.size()];
+            for (Map.Entry<String, Integer> entry : boosts.entrySet()) {
+                int index = catalog.indexOf(entry.getKey());
+                if (index >= 0) {
+                    byIndex[index] = entry.getValue();
+                }
+            }
+            boostCatalog = catalog;
+            boostSource = boosts;
+            boostsByIndex = byIndex;
         }
-        
-        // Update page label and input
-        pageLabel.setText(String.format("Page %d of %d", currentPage + 1, totalPages));
-        pageInput.setText(String.valueOf(currentPage + 1));
-
-        // Calculate range for current page
-        int startIndex = currentPage * ENTRIES_PER_PAGE;
-        int endIndex = Math.min(startIndex + ENTRIES_PER_PAGE, allObjects.size());
-        List<Map.Entry<String, ObjectType>> pageObjects = allObjects.isEmpty() 
-                ? Collections.emptyList() 
-                : allObjects.subList(startIndex, endIndex);
-
-        // Clear existing components and reset selection
-        objectsContainer.removeAll();
-        selectedSlot = null;
-
-        // Map to store slots by gameval for efficient lookup
-        Map<String, ObjectListSlot> slotsByGameval = new HashMap<>();
-
-        // Add ObjectListSlot for each object with 1 pixel gap
-        for (int i = 0; i < pageObjects.size(); i++)
-        {
-            Map.Entry<String, ObjectType> entry = pageObjects.get(i);
-            ObjectType objectType = entry.getValue();
-            final String gameval = entry.getKey();
-            
-            // Check if this object is favorited
-            boolean isFavorited = favoriteObjects.contains(gameval);
-            
-            ObjectListSlot slot = new ObjectListSlot(
-                    gameval,
-                    objectType != null ? objectType.getId() : 0,
-                    g -> {
-                        // onSelect handler - toggle selection
-                        ObjectListSlot clickedSlot = slotsByGameval.get(g);
-                        if (clickedSlot != null)
-                        {
-                            // If clicking the already selected slot, deselect it
-                            if (selectedSlot == clickedSlot && clickedSlot.isSelected())
-                            {
-                                clickedSlot.setSelected(false);
-                                selectedSlot = null;
-                                // Clear selection in ObjectAction (but don't exit edit mode)
-                                plugin.getObjectAction().setSelectedGameval(null);
-                                // Remove preview but keep edit mode active
-                                plugin.getObjectAction().removePreview();
-                            }
-                            else
-                            {
-                                // Deselect previous and select this one
-                                if (selectedSlot != null)
-                                {
-                                    selectedSlot.setSelected(false);
-                                }
-                                selectedSlot = clickedSlot;
-                                clickedSlot.setSelected(true);
-                                // Update ObjectAction with selected gameval
-                                plugin.getObjectAction().setSelectedGameval(g);
-                                
-                                // Add to recent objects (maintains order, removes duplicates)
-                                recentObjects.remove(g); // Remove if already exists
-                                recentObjects.add(g); // Add to end (most recent)
-                                
-                                // Limit to MAX_RECENT_OBJECTS, remove oldest if needed
-                                while (recentObjects.size() > MAX_RECENT_OBJECTS) {
-                                    String oldest = recentObjects.iterator().next();
-                                    recentObjects.remove(oldest);
-                                }
-                                
-                                // Save to disk
-                                saveRecentObjects();
-                            }
-                        }
-                    },
-                    g -> {
-                        // onEdit handler
-                    },
-                    g -> {
-                        // onToggleFavorite handler
-                        boolean wasFavorited = favoriteObjects.contains(g);
-                        if (wasFavorited) {
-                            favoriteObjects.remove(g);
-                        } else {
-                            favoriteObjects.add(g);
-                        }
-                        saveFavorites();
-                        
-                        // Update the specific slot's favorite state immediately
-                        ObjectListSlot slotToUpdate = slotsByGameval.get(g);
-                        if (slotToUpdate != null) {
-                            slotToUpdate.setFavorite(!wasFavorited, favoriteIcon);
-                        }
-                    },
-                    isFavorited,
-                    favoriteIcon,
-                    "all".equals(currentTab) // Only show icon in "all" tab
-            );
-            
-            // Store slot in map for efficient lookup
-            slotsByGameval.put(gameval, slot);
+        return boostsByIndex;
+    }
 
-            // Make slot fill available width (resize with splitter)
-            slot.setMaximumSize(new Dimension(Integer.MAX_VALUE, slot.getMaximumSize().height));
-            slot.setPreferredSize(new Dimension(0, slot.getPreferredSize().height));
+    private static int[] indicesOf(ObjectCatalog catalog, Collection<String> gamevals) {
+        int[] indices = new int[gamevals.size()];
+        int size = 0;
+        for (String gameval : gamevals) {
+            int index = catalog.indexOf(gameval);
+            if (index >= 0) {
+                indices[size++] = index;
+            }
+        }
+        return Arrays.copyOf(indices, size);
+    }
 
-            objectsContainer.add(slot);
+    private static int[] retain(int[] indices, BitSet allowed) {
+        int[] retained = new int[indices.length];
+        int size = 0;
+        for (int index : indices) {
+            if (allowed.get(index)) {
+                retained[size++] = index;
+            }
+        }
+        return Arrays.copyOf(retained, size);
+    }
+    
+    private void showResults(List<Map.Entry<String, ObjectType>> results)
+    {
+        hoveredIndex = -1;
+        objectListModel.setEntries(results);
+        resultCountLabel.setText(String.format("%,d objects", results.size()));
+        scrollPane.getVerticalScrollBar().setValue(0); // Scroll to top
+    }
 
-            // Add 1 pixel gap between slots (except after the last one)
-            if (i < pageObjects.size() - 1)
-            {
-                objectsContainer.add(Box.createVerticalStrut(1));
+    /**
+     * List model over a result list; rows are only materialized when the list paints them
+     */
+    private static final class ObjectListModel extends AbstractListModel<Map.Entry<String, ObjectType>> {
+        private List<Map.Entry<String, ObjectType>> entries = Collections.emptyList();
+
+        void setEntries(List<Map.Entry<String, ObjectType>> entries) {
+            int oldSize = this.entries.size();
+            this.entries = entries;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (!entries.isEmpty()) {
+                fireIntervalAdded(this, 0, entries.size() - 1);
             }
         }
 
-        // Add glue to push content to top
-        objectsContainer.add(Box.createVerticalGlue());
+        @Override
+        public int getSize() {
+            return entries.size();
+        }
 
-        // Refresh the panel
-        objectsContainer.revalidate();
-        objectsContainer.repaint();
-        scrollPane.getVerticalScrollBar().setValue(0); // Scroll to top
+        @Override
+        public Map.Entry<String, ObjectType> getElementAt(int index) {
+            return entries.get(index);
+        }
     }
     
     private File getSaveFile(String filename) {
@@ -633,25 +752,19 @@ public class ObjectsListPanel extends JPanel {
         }
         
         try (FileReader reader = new FileReader(recentFile)) {
-            Type listType = new TypeToken<List<String>>(){}.getType();
-            List<String> loaded = gson.fromJson(reader, listType);
-            
-            if (loaded != null) {
-                recentObjects.clear();
-                // Limit to MAX_RECENT_OBJECTS when loading
-                int startIndex = Math.max(0, loaded.size() - MAX_RECENT_OBJECTS);
-                for (int i = startIndex; i < loaded.size(); i++) {
-                    recentObjects.add(loaded.get(i));
-                }
-                log.info("Loaded {} recent objects from disk", recentObjects.size());
-            }
-        } catch (IOException e) {
+            // Also reads the old format, a plain list of recently used gamevals
+            JsonElement loaded = gson.fromJson(reader, JsonElement.class);
+            long now = System.currentTimeMillis();
+            usageTracker = ObjectUsageTracker.fromJson(gson, loaded, now);
+            usageBoosts = usageTracker.boosts(now);
+            log.info("Loaded usage of {} recent objects from disk", usageTracker.size());
+        } catch (IOException | JsonParseException | IllegalStateException e) {
             log.warn("Failed to load recent objects from disk", e);
         }
     }
     
     private void saveRecentObjects() {
-        saveToFile(RECENT_OBJECTS_FILE, new ArrayList<>(recentObjects), "recent objects");
+        saveToFile(RECENT_OBJECTS_FILE, usageTracker.toJson(gson), usageTracker.size() + " recent objects");
     }
     
     private void loadFavorites() {
@@ -677,18 +790,23 @@ public class ObjectsListPanel extends JPanel {
     }
     
     private void saveFavorites() {
-        saveToFile(FAVORITES_OBJECTS_FILE, new ArrayList<>(favoriteObjects), "favorite objects");
+        saveToFile(FAVORITES_OBJECTS_FILE, gson.toJson(new ArrayList<>(favoriteObjects)), favoriteObjects.size() + " favorite objects");
     }
     
-    private void saveToFile(String filename, List<String> data, String description) {
-        File file = getSaveFile(filename);
-        
-        try (FileWriter writer = new FileWriter(file)) {
-            gson.toJson(data, writer);
-            log.debug("Saved {} {} to disk", data.size(), description);
-        } catch (IOException e) {
-            log.warn("Failed to save {} to disk", description, e);
-        }
+    /**
+     * Write any recent or favorite objects still waiting to be saved and release the save thread,
+     * when the plugin shuts down
+     */
+    public static void flushPendingSaves() {
+        SAVE_WRITER.close();
+    }
+
+    /**
+     * Write already serialized JSON in the background, so clicks never wait on the disk
+     */
+    private void saveToFile(String filename, String json, String description) {
+        Path file = Paths.get(System.getProperty("user.home"), ".runelite", SAVE_DIR, filename);
+        SAVE_WRITER.write(file, json, description);
     }
 }
 
@@ -2,6 +2,8 @@ package io.mark.pmpoh.ui;
 
 import io.mark.pmpoh.PimpMyPohPlugin;
 import io.mark.pmpoh.objects.ObjectManager;
+import io.mark.pmpoh.service.ObjectSearchService;
+import io.mark.pmpoh.service.ThumbnailService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.ui.ColorScheme;
@@ -17,7 +19,7 @@ import java.awt.*;
  * Layout:
  * - Top toolbar (title + future actions)
  * - Center tabbed pane with \"Objects\" and \"House Manager\" tabs
- * - Objects tab: Split pane with paginated list on left, toolbar on right
+ * - Objects tab: Split pane with object list on left, toolbar on right
  */
 @Slf4j
 @Singleton
@@ -46,6 +48,12 @@ public class ToolBoxFrame extends JFrame
     @Inject
     private PimpMyPohPlugin plugin;
 
+    @Inject
+    private ThumbnailService thumbnailService;
+
+    @Inject
+    private ObjectSearchService searchService;
+
     @Inject
     public ToolBoxFrame()
     {
@@ -122,7 +130,7 @@ public class ToolBoxFrame extends JFrame
         
         // Left side: Objects list panel (check for null to handle injection timing)
         if (objectManager != null && plugin != null) {
-            ObjectsListPanel objectsListPanel = new ObjectsListPanel(objectManager, plugin);
+            ObjectsListPanel objectsListPanel = new ObjectsListPanel(objectManager, plugin, thumbnailService, searchService);
             splitPane.setLeftComponent(objectsListPanel);
         } else {
             // Placeholder if injection hasn't happened yet
@@ -416,7 +424,7 @@ public class ToolBoxFrame extends JFrame
                 // If left component is a placeholder or ObjectsListPanel wasn't created, create it now
                 if (leftComponent instanceof JLabel || (objectManager != null && plugin != null && !(leftComponent instanceof ObjectsListPanel))) {
                     if (objectManager != null && plugin != null) {
-                        ObjectsListPanel objectsListPanel = new ObjectsListPanel(objectManager, plugin);
+                        ObjectsListPanel objectsListPanel = new ObjectsListPanel(objectManager, plugin, thumbnailService, searchService);
                         splitPane.setLeftComponent(objectsListPanel);
                         objectsTab.revalidate();
                         objectsTab.repaint();
@@ -0,0 +1,164 @@
+package io.mark.pmpoh.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes small files on a background thread so callers never block on disk I/O.
+ * A write waits briefly before it runs, and any newer content for the same file replaces it in the
+ * meantime, so a burst of changes costs one write of the latest content. Files are written to a temp
+ * file and atomically moved into place, so a crash never leaves a half-written file behind.
+ * Pending writes are flushed by {@link #flush()} and {@link #close()}, and when the JVM exits. The writer
+ * thread and the exit hook only exist while writes have been made since the last close, so a closed writer
+ * holds no thread that would keep its classloader alive.
+ */
+@Slf4j
+public class CoalescingFileWriter
+{
+    private static final long COALESCE_DELAY_MS = 200;
+
+    private final String threadName;
+
+    // Latest content waiting to be written, by file; guarded by itself together with the two fields below
+    private final Map<Path, PendingWrite> pending = new HashMap<>();
+    private ScheduledExecutorService executor;
+    private Thread shutdownHook;
+
+    // Held while taking content from pending and writing it, so an older write never lands after a newer one
+    private final Object writeLock = new Object();
+
+    public CoalescingFileWriter(String threadName)
+    {
+        this.threadName = threadName;
+    }
+
+    /**
+     * Schedule the file to be replaced with the content
+     * @param description What the file holds, for log messages
+     */
+    public void write(Path file, String content, String description)
+    {
+        synchronized (pending)
+        {
+            PendingWrite previous = pending.put(file, new PendingWrite(content, description));
+            if (previous != null)
+            {
+                // Already scheduled; that write will pick up this content
+                return;
+            }
+
+            if (executor == null)
+            {
+                executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                shutdownHook = new Thread(this::flush, threadName + "-shutdown");
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+            executor.schedule(() -> flush(file), COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write every pending file now, then stop the writer thread and remove the exit hook.
+     * The writer stays usable; the next write starts them again.
+     */
+    public void close()
+    {
+        ScheduledExecutorService closedExecutor;
+        Thread closedHook;
+        synchronized (pending)
+        {
+            closedExecutor = executor;
+            closedHook = shutdownHook;
+            executor = null;
+            shutdownHook = null;
+        }
+
+        flush();
+        if (closedExecutor != null)
+        {
+            closedExecutor.shutdownNow();
+        }
+        if (closedHook != null)
+        {
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook(closedHook);
+            }
+            catch (IllegalStateException e)
+            {
+                // The JVM is already exiting and the hook is running or about to
+            }
+        }
+    }
+
+    /**
+     * Write every pending file now, on the calling thread
+     */
+    public void flush()
+    {
+        Path[] files;
+        synchronized (pending)
+        {
+            files = pending.keySet().toArray(new Path[0]);
+        }
+        for (Path file : files)
+        {
+            flush(file);
+        }
+    }
+
+    private void flush(Path file)
+    {
+        synchronized (writeLock)
+        {
+            PendingWrite write;
+            synchronized (pending)
+            {
+                write = pending.remove(file);
+            }
+            if (write == null)
+            {
+                return;
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try
+            {
+                Files.createDirectories(file.getParent());
+                Files.write(temp, write.content.getBytes(StandardCharsets.UTF_8));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Saved {} to disk", write.description);
+            }
+            catch (IOException e)
+            {
+                log.warn("Failed to save {} to disk", write.description, e);
+            }
+        }
+    }
+
+    private static final class PendingWrite
+    {
+        private final String content;
+        private final String description;
+
+        private PendingWrite(String content, String description)
+        {
+            this.content = content;
+            this.description = description;
+        }
+    }
+}
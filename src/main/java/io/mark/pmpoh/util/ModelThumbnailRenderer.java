@@ -0,0 +1,210 @@
+package io.mark.pmpoh.util;
+
+import net.runelite.api.JagexColor;
+import net.runelite.api.Model;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Software renderer for small model thumbnails.
+ * Faces are flat shaded with their lit colors, projected orthographically from a fixed three-quarter view
+ * and painted back to front, which is plenty for an icon and needs no access to the game's renderer.
+ */
+public class ModelThumbnailRenderer
+{
+    // Three-quarter view: turned 45 degrees and looking down 30 degrees
+    private static final double YAW = Math.toRadians(45);
+    private static final double PITCH = Math.toRadians(30);
+
+    // Rendered at a multiple of the requested size and scaled down, instead of antialiasing every face
+    private static final int SUPERSAMPLE = 2;
+    private static final double MARGIN = 0.08;
+
+    // Face colors marking hidden and flat shaded faces
+    private static final int HIDDEN_FACE = -2;
+    private static final int FLAT_FACE = -1;
+
+    private ModelThumbnailRenderer() {}
+
+    /**
+     * Geometry and lit colors of a model, copied so it can be rendered away from the client thread
+     */
+    public static final class Snapshot
+    {
+        private final int faceCount;
+        private final float[] verticesX;
+        private final float[] verticesY;
+        private final float[] verticesZ;
+        private final int[] faceIndices1;
+        private final int[] faceIndices2;
+        private final int[] faceIndices3;
+        private final int[] faceColors1;
+        private final int[] faceColors2;
+        private final int[] faceColors3;
+        private final byte[] faceTransparencies;
+
+        private Snapshot(Model model)
+        {
+            int vertexCount = model.getVerticesCount();
+            faceCount = model.getFaceCount();
+            verticesX = Arrays.copyOf(model.getVerticesX(), vertexCount);
+            verticesY = Arrays.copyOf(model.getVerticesY(), vertexCount);
+            verticesZ = Arrays.copyOf(model.getVerticesZ(), vertexCount);
+            faceIndices1 = Arrays.copyOf(model.getFaceIndices1(), faceCount);
+            faceIndices2 = Arrays.copyOf(model.getFaceIndices2(), faceCount);
+            faceIndices3 = Arrays.copyOf(model.getFaceIndices3(), faceCount);
+            faceColors1 = Arrays.copyOf(model.getFaceColors1(), faceCount);
+            faceColors2 = Arrays.copyOf(model.getFaceColors2(), faceCount);
+            faceColors3 = Arrays.copyOf(model.getFaceColors3(), faceCount);
+            byte[] transparencies = model.getFaceTransparencies();
+            faceTransparencies = transparencies != null ? Arrays.copyOf(transparencies, faceCount) : null;
+        }
+    }
+
+    /**
+     * Copy what the renderer needs from a lit model. Must run on the client thread.
+     */
+    public static Snapshot snapshot(Model model)
+    {
+        return new Snapshot(model);
+    }
+
+    /**
+     * Render the model centered in a transparent square image
+     * @param size Width and height of the image in pixels
+     * @return The thumbnail, or null if the model has no visible faces
+     */
+    public static BufferedImage render(Snapshot mesh, int size)
+    {
+        int vertexCount = mesh.verticesX.length;
+        double cosYaw = Math.cos(YAW);
+        double sinYaw = Math.sin(YAW);
+        double cosPitch = Math.cos(PITCH);
+        double sinPitch = Math.sin(PITCH);
+
+        // Project every vertex; y grows downwards in model space, as it does on screen
+        double[] screenX = new double[vertexCount];
+        double[] screenY = new double[vertexCount];
+        double[] depth = new double[vertexCount];
+        for (int v = 0; v < vertexCount; v++)
+        {
+            double x = mesh.verticesX[v];
+            double y = mesh.verticesY[v];
+            double z = mesh.verticesZ[v];
+
+            double rotatedX = x * cosYaw - z * sinYaw;
+            double rotatedZ = x * sinYaw + z * cosYaw;
+            screenX[v] = rotatedX;
+            screenY[v] = y * cosPitch - rotatedZ * sinPitch;
+            depth[v] = y * sinPitch + rotatedZ * cosPitch;
+        }
+
+        // Visible faces ordered far to near, packed as (depth, face) so a primitive sort does the work
+        long[] order = new long[mesh.faceCount];
+        int visibleCount = 0;
+        double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int face = 0; face < mesh.faceCount; face++)
+        {
+            if (mesh.faceColors3[face] == HIDDEN_FACE || alpha(mesh, face) == 0)
+            {
+                continue;
+            }
+
+            int a = mesh.faceIndices1[face];
+            int b = mesh.faceIndices2[face];
+            int c = mesh.faceIndices3[face];
+            include(bounds, screenX[a], screenY[a]);
+            include(bounds, screenX[b], screenY[b]);
+            include(bounds, screenX[c], screenY[c]);
+
+            // Larger depth is further from the viewer and must be painted first, so sort on its negation
+            int faceDepth = (int) Math.round((depth[a] + depth[b] + depth[c]) / 3);
+            order[visibleCount++] = (long) -faceDepth << 32 | face;
+        }
+
+        if (visibleCount == 0)
+        {
+            return null;
+        }
+        Arrays.sort(order, 0, visibleCount);
+
+        int canvasSize = size * SUPERSAMPLE;
+        double extent = Math.max(Math.max(bounds[2] - bounds[0], bounds[3] - bounds[1]), 1);
+        double scale = canvasSize * (1 - 2 * MARGIN) / extent;
+        double offsetX = canvasSize / 2.0 - (bounds[0] + bounds[2]) / 2 * scale;
+        double offsetY = canvasSize / 2.0 - (bounds[1] + bounds[3]) / 2 * scale;
+
+        BufferedImage canvas = new BufferedImage(canvasSize, canvasSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = canvas.createGraphics();
+        int[] polygonX = new int[3];
+        int[] polygonY = new int[3];
+        for (int i = 0; i < visibleCount; i++)
+        {
+            int face = (int) order[i];
+            int a = mesh.faceIndices1[face];
+            int b = mesh.faceIndices2[face];
+            int c = mesh.faceIndices3[face];
+            polygonX[0] = (int) Math.round(screenX[a] * scale + offsetX);
+            polygonY[0] = (int) Math.round(screenY[a] * scale + offsetY);
+            polygonX[1] = (int) Math.round(screenX[b] * scale + offsetX);
+            polygonY[1] = (int) Math.round(screenY[b] * scale + offsetY);
+            polygonX[2] = (int) Math.round(screenX[c] * scale + offsetX);
+            polygonY[2] = (int) Math.round(screenY[c] * scale + offsetY);
+
+            graphics.setColor(faceColor(mesh, face));
+            graphics.fillPolygon(polygonX, polygonY, 3);
+        }
+        graphics.dispose();
+
+        BufferedImage thumbnail = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D scaled = thumbnail.createGraphics();
+        scaled.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        scaled.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        scaled.drawImage(canvas, 0, 0, size, size, null);
+        scaled.dispose();
+        return thumbnail;
+    }
+
+    /**
+     * Grow {minX, minY, maxX, maxY} to contain the point
+     */
+    private static void include(double[] bounds, double x, double y)
+    {
+        bounds[0] = Math.min(bounds[0], x);
+        bounds[1] = Math.min(bounds[1], y);
+        bounds[2] = Math.max(bounds[2], x);
+        bounds[3] = Math.max(bounds[3], y);
+    }
+
+    /**
+     * Average of the face's lit corner colors; flat faces only carry the first
+     */
+    private static Color faceColor(Snapshot mesh, int face)
+    {
+        int alpha = alpha(mesh, face);
+        if (mesh.faceColors3[face] == FLAT_FACE)
+        {
+            return new Color(toRgb(mesh.faceColors1[face]) | alpha << 24, true);
+        }
+
+        int rgb1 = toRgb(mesh.faceColors1[face]);
+        int rgb2 = toRgb(mesh.faceColors2[face]);
+        int rgb3 = toRgb(mesh.faceColors3[face]);
+        int red = ((rgb1 >> 16 & 0xFF) + (rgb2 >> 16 & 0xFF) + (rgb3 >> 16 & 0xFF)) / 3;
+        int green = ((rgb1 >> 8 & 0xFF) + (rgb2 >> 8 & 0xFF) + (rgb3 >> 8 & 0xFF)) / 3;
+        int blue = ((rgb1 & 0xFF) + (rgb2 & 0xFF) + (rgb3 & 0xFF)) / 3;
+        return new Color(red, green, blue, alpha);
+    }
+
+    private static int toRgb(int hsl)
+    {
+        return JagexColor.HSLtoRGB((short) hsl, JagexColor.BRIGHTNESS_HIGH) & 0xFFFFFF;
+    }
+
+    private static int alpha(Snapshot mesh, int face)
+    {
+        return mesh.faceTransparencies != null ? 0xFF - (mesh.faceTransparencies[face] & 0xFF) : 0xFF;
+    }
+}
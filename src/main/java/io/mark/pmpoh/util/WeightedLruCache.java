@@ -0,0 +1,128 @@
+package io.mark.pmpoh.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * LRU cache bounded by the total weight of its values rather than their number.
+ * Each value is weighed once when it is added, and the least recently used values are evicted until the
+ * total fits the budget again. A value heavier than the whole budget is not cached at all.
+ *
+ * Thread-safe: every operation holds the cache's lock, which only covers map and counter updates.
+ * Values are weighed before taking the lock. Two threads missing the same key may both build the
+ * value; the last put wins, which is harmless for values that are equal in content.
+ */
+public class WeightedLruCache<K, V> {
+
+    // Access ordered, so even get() reorders it; guarded by this together with the fields below
+    private final Map<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ToLongFunction<? super V> weigher;
+
+    private long maxWeight;
+    private long weight;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<? super V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return The cached value, or null if there is none
+     */
+    public synchronized V get(K key) {
+        Weighted<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        long valueWeight = Math.max(0, weigher.applyAsLong(value));
+        synchronized (this) {
+            Weighted<V> previous = entries.remove(key);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            if (valueWeight > maxWeight) {
+                return;
+            }
+
+            entries.put(key, new Weighted<>(value, valueWeight));
+            weight += valueWeight;
+            evictToFit();
+        }
+    }
+
+    /**
+     * Change the budget, evicting right away if the cache no longer fits
+     */
+    public synchronized void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+        evictToFit();
+    }
+
+    public synchronized long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    private void evictToFit() {
+        Iterator<Weighted<V>> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hitCount + missCount;
+        return String.format("%d entries, %,d / %,d weight, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+            entries.size(), weight, maxWeight, hitCount, missCount,
+            lookups > 0 ? 100.0 * hitCount / lookups : 0.0, evictionCount);
+    }
+
+    private static final class Weighted<V> {
+        private final V value;
+        private final long weight;
+
+        private Weighted(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.mark.pmpoh.objects;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup benchmark comparing the objects.json loader with the binary catalog loaders
+ * (fully decoded, and mapped with entries decoded on demand), followed by a search benchmark comparing
+ * the linear toLowerCase().contains() scan with {@link ObjectSearchIndex}, and the latency of typo-tolerant
+ * queries, which run on every keystroke and must stay within FUZZY_P99_BUDGET_MS at p99: the benchmark
+ * exits with status 1 when any of them does not.
+ * Runs against the real catalog in ~/.runelite/pimp-my-poh (start the plugin once to download it),
+ * or against the objects.json passed as the first argument.
+ */
+public class ObjectCatalogBenchmark
+{
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 10;
+	private static final int SEARCH_ROUNDS = 200;
+	private static final String[] SEARCH_QUERIES = {"do", "oak", "door", "chair", "table_", "window", "zzzz"};
+	private static final String[] FUZZY_QUERIES = {"woden chiar", "mahogny tabel", "bookcas", "windw", "dor", "zzzzzz"};
+	private static final int FUZZY_LIMIT = 200;
+	private static final int FUZZY_WARMUP_ROUNDS = 100;
+	// Acceptance target for typo-tolerant queries; the benchmark exits with status 1 when a query's p99 exceeds it
+	private static final double FUZZY_P99_BUDGET_MS = 5.0;
+
+	public static void main(String[] args) throws Exception
+	{
+		File jsonFile = args.length > 0
+				? new File(args[0])
+				: Paths.get(System.getProperty("user.home"), ".runelite", "pimp-my-poh", "objects.json").toFile();
+
+		if (!jsonFile.isFile())
+		{
+			System.err.println("objects.json not found at " + jsonFile.getAbsolutePath());
+			return;
+		}
+
+		File catalogFile = File.createTempFile("objects", ".bin");
+		catalogFile.deleteOnExit();
+		ObjectCatalogFile.write(catalogFile, ObjectManager.readJsonCatalog(jsonFile).values(), jsonFile);
+
+		System.out.printf("objects.json: %d bytes, objects.bin: %d bytes%n", jsonFile.length(), Files.size(catalogFile.toPath()));
+
+		report("json", measure(() -> ObjectManager.readJsonCatalog(jsonFile).size()));
+		report("binary", measure(() -> ObjectCatalogFile.read(catalogFile).size()));
+		report("mapped", measure(() -> ObjectCatalogFile.open(catalogFile).size()));
+
+		ObjectCatalog catalog = ObjectCatalogFile.open(catalogFile);
+		long indexStart = System.nanoTime();
+		ObjectSearchIndex index = new ObjectSearchIndex(catalog);
+		System.out.printf("%nsearch index built in %.2f ms%n", (System.nanoTime() - indexStart) / 1e6);
+
+		List<Map.Entry<String, ObjectType>> sorted = catalog.sortedEntries();
+		for (String query : SEARCH_QUERIES)
+		{
+			System.out.printf("'%s': %d matches%n", query, index.search(query).length);
+			report("  scan", measure(() -> linearScan(sorted, query), SEARCH_ROUNDS));
+			report("  index", measure(() -> index.search(query).length, SEARCH_ROUNDS));
+		}
+
+		// Compile the fuzzy path before timing it, so the budget check measures steady-state keystrokes
+		for (int i = 0; i < FUZZY_WARMUP_ROUNDS; i++)
+		{
+			for (String query : FUZZY_QUERIES)
+			{
+				index.fuzzySearch(query, FUZZY_LIMIT);
+			}
+		}
+
+		System.out.println();
+		double worstFuzzyP99 = 0;
+		for (String query : FUZZY_QUERIES)
+		{
+			int[] results = index.fuzzySearch(query, FUZZY_LIMIT);
+			System.out.printf("'%s': %d fuzzy matches%s%n", query, results.length,
+					results.length > 0 ? ", best " + catalog.getGameval(results[0]) : "");
+			long[] timings = measure(() -> index.fuzzySearch(query, FUZZY_LIMIT).length, SEARCH_ROUNDS);
+			report("  fuzzy", timings);
+			worstFuzzyP99 = Math.max(worstFuzzyP99, p99(timings) / 1e6);
+		}
+
+		if (worstFuzzyP99 > FUZZY_P99_BUDGET_MS)
+		{
+			System.err.printf("%nFuzzy search p99 %.3f ms exceeds the %.1f ms budget%n", worstFuzzyP99, FUZZY_P99_BUDGET_MS);
+			System.exit(1);
+		}
+		System.out.printf("%nFuzzy search p99 %.3f ms is within the %.1f ms budget%n", worstFuzzyP99, FUZZY_P99_BUDGET_MS);
+	}
+
+	/**
+	 * The filter ObjectsListPanel used before the search index
+	 */
+	private static int linearScan(List<Map.Entry<String, ObjectType>> entries, String query)
+	{
+		int matches = 0;
+		for (Map.Entry<String, ObjectType> entry : entries)
+		{
+			if (entry.getKey().toLowerCase().contains(query))
+			{
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	private static long[] measure(Loader loader) throws Exception
+	{
+		if (loader.load() == 0)
+		{
+			throw new IllegalStateException("Loader returned no objects");
+		}
+		return measure(loader, MEASURED_ROUNDS);
+	}
+
+	private static long[] measure(Loader loader, int rounds) throws Exception
+	{
+		for (int i = 0; i < WARMUP_ROUNDS; i++)
+		{
+			loader.load();
+		}
+
+		long[] timings = new long[rounds];
+		for (int i = 0; i < rounds; i++)
+		{
+			long start = System.nanoTime();
+			loader.load();
+			timings[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(timings);
+		return timings;
+	}
+
+	private static void report(String name, long[] sortedTimings)
+	{
+		System.out.printf("%-8s min %8.3f ms  median %8.3f ms  p99 %8.3f ms  max %8.3f ms%n", name,
+				sortedTimings[0] / 1e6,
+				sortedTimings[sortedTimings.length / 2] / 1e6,
+				p99(sortedTimings) / 1e6,
+				sortedTimings[sortedTimings.length - 1] / 1e6);
+	}
+
+	private static long p99(long[] sortedTimings)
+	{
+		return sortedTimings[(int) (sortedTimings.length * 0.99)];
+	}
+
+	private interface Loader
+	{
+		int load() throws Exception;
+	}
+}
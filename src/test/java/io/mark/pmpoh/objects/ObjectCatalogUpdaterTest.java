@@ -0,0 +1,228 @@
+package io.mark.pmpoh.objects;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link ObjectCatalogUpdater} against a local HTTP server serving objects.json and its chunked manifest
+ */
+public class ObjectCatalogUpdaterTest
+{
+	private static final int CHUNK_SIZE = 64;
+	private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+	private HttpServer server;
+	private Path directory;
+	private File localFile;
+	private ObjectCatalogUpdater updater;
+
+	private byte[] remote;
+	private volatile boolean ignoreRange;
+	private volatile boolean corruptRanges;
+
+	// Range header of every objects.json request, or null for full downloads
+	private final List<String> objectRequests = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void setUp() throws IOException
+	{
+		remote = catalogBytes(1000);
+		directory = Files.createTempDirectory("pmpoh-updater");
+		localFile = directory.resolve("objects.json").toFile();
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/objects.json", this::serveObjects);
+		server.createContext("/manifest.json", exchange -> respond(exchange, 200, manifest().getBytes(StandardCharsets.UTF_8)));
+		server.start();
+
+		String base = "http://127.0.0.1:" + server.getAddress().getPort();
+		updater = new ObjectCatalogUpdater(base + "/objects.json", base + "/manifest.json");
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		server.stop(0);
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	public void mergesChangedChunksFromRangeRequests() throws IOException
+	{
+		// Chunks 2-3 and 9 differ, and the local copy is missing the tail of the last chunk
+		byte[] local = Arrays.copyOf(remote, remote.length - 10);
+		for (int i = 2 * CHUNK_SIZE; i < 4 * CHUNK_SIZE; i++)
+		{
+			local[i] = (byte) '#';
+		}
+		local[9 * CHUNK_SIZE + 5] = (byte) '#';
+		Files.write(localFile.toPath(), local);
+
+		assertTrue(updater.update(localFile));
+
+		assertArrayEquals(remote, Files.readAllBytes(localFile.toPath()));
+		int lastChunk = (remote.length - 1) / CHUNK_SIZE;
+		assertEquals(Arrays.asList(
+				range(2 * CHUNK_SIZE, 4 * CHUNK_SIZE - 1),
+				range(9 * CHUNK_SIZE, 10 * CHUNK_SIZE - 1),
+				range(lastChunk * CHUNK_SIZE, remote.length - 1)), objectRequests);
+	}
+
+	@Test
+	public void fallsBackToFullDownloadWhenRangeIsIgnored() throws IOException
+	{
+		ignoreRange = true;
+		Files.write(localFile.toPath(), withChangedChunk(3));
+
+		assertTrue(updater.update(localFile));
+
+		assertArrayEquals(remote, Files.readAllBytes(localFile.toPath()));
+		assertEquals(Arrays.asList(range(3 * CHUNK_SIZE, 4 * CHUNK_SIZE - 1), null), objectRequests);
+	}
+
+	@Test
+	public void fallsBackToFullDownloadWhenMergedChunksMismatch() throws IOException
+	{
+		corruptRanges = true;
+		Files.write(localFile.toPath(), withChangedChunk(5));
+
+		assertTrue(updater.update(localFile));
+
+		assertArrayEquals(remote, Files.readAllBytes(localFile.toPath()));
+		assertEquals(Arrays.asList(range(5 * CHUNK_SIZE, 6 * CHUNK_SIZE - 1), null), objectRequests);
+		assertFalse(Files.exists(directory.resolve("objects.json.part")));
+	}
+
+	@Test
+	public void skipsDownloadWhenUpToDate() throws IOException
+	{
+		Files.write(localFile.toPath(), remote);
+
+		assertFalse(updater.update(localFile));
+
+		assertTrue(objectRequests.isEmpty());
+	}
+
+	private byte[] withChangedChunk(int chunk)
+	{
+		byte[] local = remote.clone();
+		local[chunk * CHUNK_SIZE] = (byte) '#';
+		return local;
+	}
+
+	private void serveObjects(HttpExchange exchange) throws IOException
+	{
+		String range = exchange.getRequestHeaders().getFirst("Range");
+		objectRequests.add(range);
+
+		Matcher matcher = range != null ? RANGE.matcher(range) : null;
+		if (ignoreRange || matcher == null || !matcher.matches())
+		{
+			respond(exchange, 200, remote);
+			return;
+		}
+
+		int from = Integer.parseInt(matcher.group(1));
+		int to = Math.min(Integer.parseInt(matcher.group(2)), remote.length - 1);
+		byte[] slice = Arrays.copyOfRange(remote, from, to + 1);
+		if (corruptRanges)
+		{
+			slice[0] ^= 1;
+		}
+		exchange.getResponseHeaders().set("Content-Range", "bytes " + from + "-" + to + "/" + remote.length);
+		respond(exchange, 206, slice);
+	}
+
+	private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException
+	{
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody())
+		{
+			out.write(body);
+		}
+	}
+
+	private String manifest()
+	{
+		JsonArray chunks = new JsonArray();
+		for (int from = 0; from < remote.length; from += CHUNK_SIZE)
+		{
+			chunks.add(sha256(Arrays.copyOfRange(remote, from, Math.min(remote.length, from + CHUNK_SIZE))));
+		}
+
+		JsonObject objectsJson = new JsonObject();
+		objectsJson.addProperty("sha256", sha256(remote));
+		objectsJson.addProperty("size", remote.length);
+		objectsJson.addProperty("chunkSize", CHUNK_SIZE);
+		objectsJson.add("chunks", chunks);
+
+		JsonObject manifest = new JsonObject();
+		manifest.add("objects.json", objectsJson);
+		return manifest.toString();
+	}
+
+	private static String range(int from, int to)
+	{
+		return "bytes=" + from + "-" + to;
+	}
+
+	/**
+	 * objects.json-like text whose every chunk is distinct
+	 */
+	private static byte[] catalogBytes(int length)
+	{
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; json.length() < length; i++)
+		{
+			json.append("{\"i\":").append(i).append(",\"g\":\"OBJECT_").append(i).append("\"},");
+		}
+		return json.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String sha256(byte[] bytes)
+	{
+		try
+		{
+			StringBuilder hex = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes))
+			{
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		}
+		catch (Exception e)
+		{
+			throw new AssertionError(e);
+		}
+	}
+}
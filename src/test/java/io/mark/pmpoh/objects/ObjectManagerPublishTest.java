@@ -0,0 +1,178 @@
+package io.mark.pmpoh.objects;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hammers {@link ObjectManager} from reader threads while catalog snapshots are being published,
+ * checking that readers only ever see whole snapshots, with the search index of the same snapshot,
+ * and never an older snapshot after a newer one.
+ */
+public class ObjectManagerPublishTest
+{
+	private static final int SNAPSHOTS = 300;
+	private static final int READERS = 6;
+	private static final int SHARED_OBJECTS = 50;
+	private static final String SHARED_PREFIX = "SHARED_";
+
+	private Path directory;
+	private File jsonFile;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		directory = Files.createTempDirectory("pmpoh-publish");
+		jsonFile = directory.resolve("objects.json").toFile();
+		Files.write(jsonFile.toPath(), "[]".getBytes());
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		try (Stream<Path> files = Files.walk(directory))
+		{
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	public void readersNeverSeeMixedSnapshots() throws Exception
+	{
+		List<ObjectCatalog> snapshots = new ArrayList<>();
+		for (int snapshot = 1; snapshot <= SNAPSHOTS; snapshot++)
+		{
+			snapshots.add(snapshot(snapshot));
+		}
+
+		ObjectManager objectManager = new ObjectManager();
+		objectManager.publish(snapshots.get(0), jsonFile);
+
+		ExecutorService executor = Executors.newFixedThreadPool(READERS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean publishing = new AtomicBoolean(true);
+		AtomicLong reads = new AtomicLong();
+
+		try
+		{
+			List<Future<?>> readers = new ArrayList<>();
+			for (int reader = 0; reader < READERS; reader++)
+			{
+				int object = reader % SHARED_OBJECTS;
+				readers.add(executor.submit(() ->
+				{
+					start.await();
+					int lastSeen = 0;
+					while (publishing.get())
+					{
+						lastSeen = checkSnapshot(objectManager, object, lastSeen);
+						reads.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+
+			start.countDown();
+			for (ObjectCatalog snapshot : snapshots.subList(1, snapshots.size()))
+			{
+				objectManager.publish(snapshot, jsonFile);
+			}
+			publishing.set(false);
+
+			for (Future<?> reader : readers)
+			{
+				reader.get(1, TimeUnit.MINUTES);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertTrue(reads.get() > 0);
+		assertSame(snapshots.get(SNAPSHOTS - 1), objectManager.getCatalog());
+		assertSame(objectManager.getCatalog(), objectManager.getSearchIndex().getCatalog());
+	}
+
+	/**
+	 * Read the manager the way the UI does and check everything seen belongs to whole, ordered snapshots
+	 * @return The newest snapshot seen
+	 */
+	private static int checkSnapshot(ObjectManager objectManager, int object, int lastSeen)
+	{
+		// One index read pins one snapshot: the catalog and the search results must agree with it
+		ObjectSearchIndex index = objectManager.getSearchIndex();
+		ObjectCatalog pinned = index.getCatalog();
+		int snapshot = snapshotOf(pinned.getByGameval(SHARED_PREFIX + object));
+		assertTrue("snapshot went back from " + lastSeen + " to " + snapshot, snapshot >= lastSeen);
+		assertEquals("size of snapshot " + snapshot, sizeOf(snapshot), pinned.size());
+
+		int[] matches = index.search(SHARED_PREFIX.toLowerCase());
+		assertEquals(SHARED_OBJECTS, matches.length);
+		for (int match : matches)
+		{
+			assertEquals("search result of snapshot " + snapshot, snapshot, snapshotOf(pinned.get(match)));
+		}
+		assertEquals(pinned.size(), pinned.sortedEntries().size());
+
+		// Separate reads of the manager may only move forward from the pinned snapshot
+		int byGameval = snapshotOf(objectManager.getByGameval(SHARED_PREFIX + object));
+		int sorted = snapshotOf(objectManager.getAllObjectsSorted().get(0).getValue());
+		int current = snapshotOf(objectManager.getCatalog().getByGameval(SHARED_PREFIX + object));
+		int newest = snapshotOf(objectManager.getSearchIndex().getCatalog().getByGameval(SHARED_PREFIX + object));
+		assertTrue("snapshots read out of order: " + snapshot + ", " + byGameval + ", " + sorted + ", " + current + ", " + newest,
+				snapshot <= byGameval && byGameval <= sorted && sorted <= current && current <= newest);
+		return newest;
+	}
+
+	/**
+	 * Catalog whose objects all carry the snapshot number as their id, and whose size varies with it
+	 */
+	private static ObjectCatalog snapshot(int snapshot)
+	{
+		Map<String, ObjectType> objects = new LinkedHashMap<>();
+		for (int i = 0; i < sizeOf(snapshot); i++)
+		{
+			String name = i < SHARED_OBJECTS ? SHARED_PREFIX + i : "OBJECT_" + snapshot + "_" + i;
+			ObjectType objectType = new ObjectType();
+			objectType.id = snapshot;
+			objectType.name = name;
+			objects.put(name, objectType);
+		}
+		return new HeapObjectCatalog(objects);
+	}
+
+	private static int sizeOf(int snapshot)
+	{
+		return SHARED_OBJECTS + snapshot % 17;
+	}
+
+	private static int snapshotOf(ObjectType objectType)
+	{
+		assertNotNull("object missing from its snapshot", objectType);
+		return objectType.id;
+	}
+}
@@ -0,0 +1,120 @@
+package io.mark.pmpoh.objects;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ranking of {@link ObjectSearchIndex} over a small synthetic catalog
+ */
+public class ObjectSearchIndexTest
+{
+	private static final String[] GAMEVALS = {
+			"WOODEN_CHAIR", "OAK_CHAIR", "TEAK_CHAIR", "CHAIRLIFT", "WOODEN_TABLE", "MAHOGANY_TABLE",
+			"GARDEN_WOOD_PILE", "DOOR", "DOOR_HOTSPOT", "TRAPDOOR", "BOOKCASE", "WINDOW", "WIDE_WINDOW"
+	};
+
+	private ObjectCatalog catalog;
+	private ObjectSearchIndex index;
+
+	@Before
+	public void setUp()
+	{
+		Map<String, ObjectType> objects = new LinkedHashMap<>();
+		for (int i = 0; i < GAMEVALS.length; i++)
+		{
+			ObjectType objectType = new ObjectType();
+			objectType.id = i;
+			objectType.name = GAMEVALS[i];
+			objects.put(GAMEVALS[i], objectType);
+		}
+		catalog = new HeapObjectCatalog(objects);
+		index = new ObjectSearchIndex(catalog);
+	}
+
+	@Test
+	public void ranksExactThenPrefixThenSubstring()
+	{
+		assertEquals(Arrays.asList("DOOR", "DOOR_HOTSPOT", "TRAPDOOR"), gamevals(index.search("door")));
+	}
+
+	@Test
+	public void ranksWordPrefixAboveSubstring()
+	{
+		assertEquals(Arrays.asList("WINDOW", "WIDE_WINDOW"), gamevals(index.search("window")));
+		assertEquals(Arrays.asList("WOODEN_CHAIR", "WOODEN_TABLE", "GARDEN_WOOD_PILE"), gamevals(index.search("wood")));
+	}
+
+	@Test
+	public void shortQueriesMatchWordStartsOnly()
+	{
+		List<String> matches = gamevals(index.search("do"));
+
+		assertEquals(Arrays.asList("DOOR", "DOOR_HOTSPOT"), matches);
+		assertFalse(matches.contains("TRAPDOOR"));
+		assertEquals(Arrays.asList("OAK_CHAIR"), gamevals(index.search("oa")));
+	}
+
+	@Test
+	public void boostsOnlyReorderEqualMatches()
+	{
+		int[] boosts = new int[catalog.size()];
+		boosts[catalog.indexOf("TEAK_CHAIR")] = 200;
+		boosts[catalog.indexOf("WOODEN_CHAIR")] = 100;
+
+		List<String> matches = gamevals(index.search("chair", 0, boosts));
+
+		assertEquals(Arrays.asList("CHAIRLIFT", "TEAK_CHAIR", "WOODEN_CHAIR", "OAK_CHAIR"), matches);
+	}
+
+	@Test
+	public void fuzzyRanksTheClosestObjectFirst()
+	{
+		assertEquals("WOODEN_CHAIR", first(index.fuzzySearch("woden chiar", 10)));
+		assertEquals("MAHOGANY_TABLE", first(index.fuzzySearch("mahogny tabel", 10)));
+		assertEquals("BOOKCASE", first(index.fuzzySearch("bokcase", 10)));
+		assertEquals("WOODEN_TABLE", first(index.fuzzySearch("wooden tabel", 10)));
+	}
+
+	@Test
+	public void fuzzyRequiresEveryQueryWord()
+	{
+		List<String> matches = gamevals(index.fuzzySearch("woden chiar", 10));
+
+		assertTrue(matches.contains("WOODEN_CHAIR"));
+		assertFalse(matches.contains("WOODEN_TABLE"));
+		assertFalse(matches.contains("OAK_CHAIR"));
+	}
+
+	@Test
+	public void fillsUpSubstringMatchesWithFuzzyMatches()
+	{
+		assertEquals(0, index.search("bokcase").length);
+		assertEquals(Arrays.asList("BOOKCASE"), gamevals(index.search("bokcase", 10)));
+	}
+
+	private List<String> gamevals(int[] indices)
+	{
+		List<String> gamevals = new ArrayList<>(indices.length);
+		for (int index : indices)
+		{
+			gamevals.add(catalog.getGameval(index));
+		}
+		return gamevals;
+	}
+
+	private String first(int[] indices)
+	{
+		assertTrue("no matches", indices.length > 0);
+		return catalog.getGameval(indices[0]);
+	}
+}
@@ -0,0 +1,263 @@
+package io.mark.pmpoh.objects;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the streaming {@link ObjectTypeDeserializer} against the tree based deserializer it replaced,
+ * field by field, so objects.json entries decode the same either way.
+ */
+public class ObjectTypeDeserializerTest
+{
+	private static final String FIXTURE = "object-types.json";
+
+	@Test
+	public void matchesTreeDeserializerOnFixture() throws IOException
+	{
+		List<ObjectType> streamed = readStreaming(fixture());
+		JsonArray tree;
+		try (Reader reader = fixture())
+		{
+			tree = new JsonParser().parse(reader).getAsJsonArray();
+		}
+
+		assertEquals(tree.size(), streamed.size());
+		for (int i = 0; i < tree.size(); i++)
+		{
+			assertSameFields("entry " + i, TreeDeserializer.deserialize(tree.get(i).getAsJsonObject()), streamed.get(i));
+		}
+	}
+
+	@Test
+	public void missingFieldsKeepDefaults() throws IOException
+	{
+		ObjectType objectType = readOne("{\"i\": 1, \"g\": \"ONLY_NAME\"}");
+		ObjectType expected = new ObjectType();
+		expected.id = 1;
+		expected.name = "ONLY_NAME";
+
+		assertSameFields("missing fields", expected, objectType);
+		assertNull(objectType.objectModels);
+		assertNull(objectType.recolorToFind);
+		assertFalse(objectType.rotated);
+	}
+
+	@Test
+	public void nullFieldsReadAsMissing() throws IOException
+	{
+		// The tree deserializer threw on explicit nulls; the streaming one treats them as missing
+		String withNulls = "{\"i\": 7, \"g\": \"NULLS\", \"a\": null, \"om\": null, \"ot\": null, \"sz\": null, "
+				+ "\"ox\": null, \"oy\": null, \"oz\": null, \"am\": null, \"co\": null, \"rr\": null, \"rf\": null, "
+				+ "\"tr\": null, \"tf\": null, \"r\": null}";
+
+		ObjectType objectType = readOne(withNulls);
+		JsonObject withoutNulls = new JsonObject();
+		for (Map.Entry<String, JsonElement> entry : new JsonParser().parse(withNulls).getAsJsonObject().entrySet())
+		{
+			if (!entry.getValue().isJsonNull())
+			{
+				withoutNulls.add(entry.getKey(), entry.getValue());
+			}
+		}
+
+		assertSameFields("null fields", TreeDeserializer.deserialize(withoutNulls), objectType);
+	}
+
+	@Test
+	public void nullEntryReadsAsNull() throws IOException
+	{
+		assertNull(readOne("null"));
+	}
+
+	@Test
+	public void writeRoundTrips() throws IOException
+	{
+		ObjectTypeDeserializer deserializer = new ObjectTypeDeserializer();
+		for (ObjectType objectType : readStreaming(fixture()))
+		{
+			ObjectType copy = readOne(deserializer.toJson(objectType));
+			assertNotNull(copy);
+			assertSameFields("round trip of " + objectType, objectType, copy);
+		}
+	}
+
+	private static void assertSameFields(String message, ObjectType expected, ObjectType actual)
+	{
+		for (Field field : instanceFields())
+		{
+			try
+			{
+				Object expectedValue = field.get(expected);
+				Object actualValue = field.get(actual);
+				if (expectedValue instanceof int[] || actualValue instanceof int[])
+				{
+					assertTrue(message + ", " + field.getName() + ": expected " + Arrays.toString((int[]) expectedValue)
+									+ " but was " + Arrays.toString((int[]) actualValue),
+							Arrays.equals((int[]) expectedValue, (int[]) actualValue));
+				}
+				else
+				{
+					assertEquals(message + ", " + field.getName(), expectedValue, actualValue);
+				}
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+	private static List<Field> instanceFields()
+	{
+		List<Field> fields = new ArrayList<>();
+		for (Field field : ObjectType.class.getDeclaredFields())
+		{
+			if (!Modifier.isStatic(field.getModifiers()))
+			{
+				field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+		assertFalse(fields.isEmpty());
+		return fields;
+	}
+
+	private static ObjectType readOne(String json) throws IOException
+	{
+		return new ObjectTypeDeserializer().read(new JsonReader(new StringReader(json)));
+	}
+
+	private static List<ObjectType> readStreaming(Reader source) throws IOException
+	{
+		ObjectTypeDeserializer deserializer = new ObjectTypeDeserializer();
+		List<ObjectType> objectTypes = new ArrayList<>();
+		try (JsonReader reader = new JsonReader(source))
+		{
+			reader.beginArray();
+			while (reader.hasNext())
+			{
+				objectTypes.add(deserializer.read(reader));
+			}
+			reader.endArray();
+		}
+		return objectTypes;
+	}
+
+	private static Reader fixture()
+	{
+		InputStream stream = ObjectTypeDeserializerTest.class.getResourceAsStream(FIXTURE);
+		assertNotNull(FIXTURE + " not on the test classpath", stream);
+		return new InputStreamReader(stream, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * The JsonObject based deserializer objects.json was read with before the streaming adapter, kept as the reference
+	 */
+	private static final class TreeDeserializer
+	{
+		static ObjectType deserialize(JsonObject jsonObject)
+		{
+			ObjectType objectType = new ObjectType();
+
+			if (jsonObject.has("i"))
+			{
+				objectType.id = jsonObject.get("i").getAsInt();
+			}
+			if (jsonObject.has("g"))
+			{
+				objectType.name = jsonObject.get("g").getAsString();
+			}
+			if (jsonObject.has("a"))
+			{
+				objectType.animationId = jsonObject.get("a").getAsInt();
+			}
+			if (jsonObject.has("om"))
+			{
+				objectType.objectModels = parseIntArray(jsonObject.get("om").getAsJsonArray());
+			}
+			if (jsonObject.has("ot"))
+			{
+				objectType.objectTypes = parseIntArray(jsonObject.get("ot").getAsJsonArray());
+			}
+			if (jsonObject.has("sz"))
+			{
+				objectType.modelSizeZ = jsonObject.get("sz").getAsInt();
+			}
+			if (jsonObject.has("ox"))
+			{
+				objectType.offsetX = jsonObject.get("ox").getAsInt();
+			}
+			if (jsonObject.has("oy"))
+			{
+				objectType.offsetY = jsonObject.get("oy").getAsInt();
+			}
+			if (jsonObject.has("oz"))
+			{
+				objectType.offsetZ = jsonObject.get("oz").getAsInt();
+			}
+			if (jsonObject.has("am"))
+			{
+				objectType.ambient = jsonObject.get("am").getAsInt();
+			}
+			if (jsonObject.has("co"))
+			{
+				objectType.contrast = jsonObject.get("co").getAsInt();
+			}
+			if (jsonObject.has("rr"))
+			{
+				objectType.recolorToReplace = parseIntArray(jsonObject.get("rr").getAsJsonArray());
+			}
+			if (jsonObject.has("rf"))
+			{
+				objectType.recolorToFind = parseIntArray(jsonObject.get("rf").getAsJsonArray());
+			}
+			if (jsonObject.has("tr"))
+			{
+				objectType.textureToReplace = parseIntArray(jsonObject.get("tr").getAsJsonArray());
+			}
+			if (jsonObject.has("tf"))
+			{
+				objectType.retextureToFind = parseIntArray(jsonObject.get("tf").getAsJsonArray());
+			}
+			if (jsonObject.has("r"))
+			{
+				objectType.rotated = jsonObject.get("r").getAsBoolean();
+			}
+
+			return objectType;
+		}
+
+		private static int[] parseIntArray(JsonArray jsonArray)
+		{
+			int[] result = new int[jsonArray.size()];
+			for (int i = 0; i < jsonArray.size(); i++)
+			{
+				result[i] = jsonArray.get(i).getAsInt();
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package io.mark.pmpoh.objects;
+
+import net.runelite.api.Client;
+import net.runelite.api.Model;
+import net.runelite.api.ModelData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that objects sharing component models load and merge them once, and that each object's
+ * recolored variant is built from its own shallow copy of the shared data.
+ * The client and models are proxies that record the calls made on them.
+ */
+public class ObjectTypeModelCacheTest
+{
+	private static final int VARIANTS = 5;
+
+	private final Map<Integer, Integer> loadCounts = new HashMap<>();
+	private final List<ModelData> mergedModels = new ArrayList<>();
+	// Shallow copies made of each merged model, and the recolors applied to each copy
+	private final Map<ModelData, List<ModelData>> copies = new IdentityHashMap<>();
+	private final Map<ModelData, List<String>> recolors = new IdentityHashMap<>();
+
+	private Client client;
+
+	@Before
+	public void setUp()
+	{
+		ObjectType.clearModelCache();
+		client = stub(Client.class, (method, args) ->
+		{
+			switch (method)
+			{
+				case "loadModelData":
+					loadCounts.merge((Integer) args[0], 1, Integer::sum);
+					return modelData();
+				case "mergeModels":
+					ModelData merged = modelData();
+					mergedModels.add(merged);
+					return merged;
+				default:
+					return null;
+			}
+		});
+	}
+
+	@After
+	public void tearDown()
+	{
+		ObjectType.clearModelCache();
+	}
+
+	@Test
+	public void modelIdsCompareByContent()
+	{
+		int[] ids = {100, 200};
+		ObjectType.ModelIds key = new ObjectType.ModelIds(ids);
+
+		assertEquals(key, new ObjectType.ModelIds(new int[]{100, 200}));
+		assertEquals(key.hashCode(), new ObjectType.ModelIds(new int[]{100, 200}).hashCode());
+		assertNotEquals(key, new ObjectType.ModelIds(new int[]{200, 100}));
+		assertNotEquals(key, new ObjectType.ModelIds(new int[]{100}));
+
+		// The key keeps its own copy, so changing the object's array later does not corrupt the cache
+		ids[0] = 300;
+		assertEquals(key, new ObjectType.ModelIds(new int[]{100, 200}));
+	}
+
+	@Test
+	public void recoloredVariantsShareOneMergedModel()
+	{
+		List<Model> models = new ArrayList<>();
+		for (int i = 0; i < VARIANTS; i++)
+		{
+			models.add(objectType("CHAIR_" + i, new int[]{100, 200}, i).getModel(client));
+		}
+
+		assertEquals(1, mergedModels.size());
+		assertEquals(Integer.valueOf(1), loadCounts.get(100));
+		assertEquals(Integer.valueOf(1), loadCounts.get(200));
+
+		ModelData base = mergedModels.get(0);
+		List<ModelData> variants = copies.get(base);
+		assertEquals(VARIANTS, variants.size());
+		assertFalse("the shared model must never be recolored", recolors.containsKey(base));
+		for (int i = 0; i < VARIANTS; i++)
+		{
+			assertEquals(recolorsOf(i), recolors.get(variants.get(i)));
+			for (int j = 0; j < i; j++)
+			{
+				assertNotSame(models.get(j), models.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void variantsAreCachedPerObject()
+	{
+		ObjectType first = objectType("TABLE_1", new int[]{100}, 1);
+		ObjectType second = objectType("TABLE_2", new int[]{100}, 2);
+
+		Model firstModel = first.getModel(client);
+		Model secondModel = second.getModel(client);
+
+		assertSame(firstModel, first.getModel(client));
+		assertSame(secondModel, second.getModel(client));
+		assertNotSame(firstModel, secondModel);
+		assertEquals(1, mergedModels.size());
+		assertEquals(2, copies.get(mergedModels.get(0)).size());
+	}
+
+	@Test
+	public void differentComponentModelsAreMergedSeparately()
+	{
+		objectType("DOOR_1", new int[]{100, 200}, 0).getModel(client);
+		objectType("DOOR_2", new int[]{200, 100}, 0).getModel(client);
+		objectType("DOOR_3", new int[]{100, 200}, 1).getModel(client);
+
+		assertEquals(2, mergedModels.size());
+		assertEquals(2, copies.get(mergedModels.get(0)).size());
+		assertEquals(1, copies.get(mergedModels.get(1)).size());
+	}
+
+	@Test
+	public void clearingTheCacheMergesAgain()
+	{
+		ObjectType objectType = objectType("BED_1", new int[]{100}, 0);
+		assertNotNull(objectType.getModel(client));
+
+		ObjectType.clearModelCache();
+		assertNotNull(objectType.getModel(client));
+
+		assertEquals(2, mergedModels.size());
+		assertEquals(Integer.valueOf(2), loadCounts.get(100));
+	}
+
+	private static ObjectType objectType(String name, int[] objectModels, int recolor)
+	{
+		ObjectType objectType = new ObjectType();
+		objectType.name = name;
+		objectType.objectModels = objectModels.clone();
+		if (recolor > 0)
+		{
+			objectType.recolorToFind = new int[]{1000};
+			objectType.recolorToReplace = new int[]{1000 + recolor};
+		}
+		return objectType;
+	}
+
+	private static List<String> recolorsOf(int recolor)
+	{
+		return recolor > 0 ? Collections.singletonList("1000->" + (1000 + recolor)) : null;
+	}
+
+	private ModelData modelData()
+	{
+		ModelData[] self = new ModelData[1];
+		self[0] = stub(ModelData.class, (method, args) ->
+		{
+			switch (method)
+			{
+				case "shallowCopy":
+					ModelData copy = modelData();
+					copies.computeIfAbsent(self[0], data -> new ArrayList<>()).add(copy);
+					return copy;
+				case "recolor":
+					recolors.computeIfAbsent(self[0], data -> new ArrayList<>()).add(args[0] + "->" + args[1]);
+					return self[0];
+				case "cloneColors":
+				case "cloneTextures":
+					return self[0];
+				case "light":
+					return stub(Model.class, (modelMethod, modelArgs) -> null);
+				default:
+					return null;
+			}
+		});
+		return self[0];
+	}
+
+	private interface Answer
+	{
+		Object answer(String method, Object[] args);
+	}
+
+	/**
+	 * A proxy answering the methods it knows, and zero, false or null for the rest
+	 */
+	private static <T> T stub(Class<T> type, Answer answer)
+	{
+		Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+		{
+			switch (method.getName())
+			{
+				case "equals":
+					return self == args[0];
+				case "hashCode":
+					return System.identityHashCode(self);
+				case "toString":
+					return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+			}
+
+			Object result = answer.answer(method.getName(), args);
+			Class<?> returnType = method.getReturnType();
+			if (result == null && returnType.isPrimitive() && returnType != void.class)
+			{
+				return Array.get(Array.newInstance(returnType, 1), 0);
+			}
+			return result;
+		});
+		return type.cast(proxy);
+	}
+}
@@ -0,0 +1,195 @@
+package io.mark.pmpoh.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WeightedLruCacheTest
+{
+	private static final int THREADS = 8;
+	private static final int OPERATIONS_PER_THREAD = 200_000;
+	private static final int KEYS = 2_000;
+	private static final long SMALL_BUDGET = 40_000;
+	private static final long LARGE_BUDGET = 60_000;
+
+	@Test
+	public void evictsLeastRecentlyUsedFirst()
+	{
+		WeightedLruCache<String, int[]> cache = new WeightedLruCache<>(30, value -> value.length);
+		cache.put("a", new int[10]);
+		cache.put("b", new int[10]);
+		cache.put("c", new int[10]);
+		assertNotNull(cache.get("a"));
+
+		cache.put("d", new int[10]);
+
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("a"));
+		assertNotNull(cache.get("c"));
+		assertNotNull(cache.get("d"));
+		assertEquals(30, cache.getWeight());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void replacingAKeyReplacesItsWeight()
+	{
+		WeightedLruCache<String, int[]> cache = new WeightedLruCache<>(100, value -> value.length);
+		cache.put("a", new int[40]);
+		int[] replacement = new int[25];
+		cache.put("a", replacement);
+
+		assertSame(replacement, cache.get("a"));
+		assertEquals(1, cache.size());
+		assertEquals(25, cache.getWeight());
+	}
+
+	@Test
+	public void doesNotCacheValuesHeavierThanTheBudget()
+	{
+		WeightedLruCache<String, int[]> cache = new WeightedLruCache<>(100, value -> value.length);
+		cache.put("small", new int[10]);
+		cache.put("huge", new int[101]);
+
+		assertNull(cache.get("huge"));
+		assertNotNull(cache.get("small"));
+		assertEquals(10, cache.getWeight());
+	}
+
+	@Test
+	public void shrinkingTheBudgetEvicts()
+	{
+		WeightedLruCache<Integer, int[]> cache = new WeightedLruCache<>(100, value -> value.length);
+		for (int key = 0; key < 10; key++)
+		{
+			cache.put(key, new int[10]);
+		}
+
+		cache.setMaxWeight(35);
+
+		assertEquals(3, cache.size());
+		assertEquals(30, cache.getWeight());
+		assertNotNull(cache.get(9));
+		assertNull(cache.get(6));
+	}
+
+	@Test
+	public void staysWithinBudgetUnderConcurrentUse() throws Exception
+	{
+		WeightedLruCache<Integer, int[]> cache = new WeightedLruCache<>(LARGE_BUDGET, value -> value.length);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong lookups = new AtomicLong();
+		AtomicLong overBudget = new AtomicLong();
+		AtomicLong wrongValues = new AtomicLong();
+
+		try
+		{
+			List<Future<?>> workers = new ArrayList<>();
+			for (int thread = 0; thread < THREADS; thread++)
+			{
+				boolean resizes = thread == 0;
+				workers.add(executor.submit(() ->
+				{
+					start.await();
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < OPERATIONS_PER_THREAD; i++)
+					{
+						int key = random.nextInt(KEYS);
+						int[] value = cache.get(key);
+						lookups.incrementAndGet();
+						if (value == null)
+						{
+							cache.put(key, valueFor(key));
+						}
+						else if (value[0] != key || value.length != weightOf(key))
+						{
+							wrongValues.incrementAndGet();
+						}
+
+						if (resizes && i % 10_000 == 0)
+						{
+							cache.setMaxWeight(random.nextBoolean() ? SMALL_BUDGET : LARGE_BUDGET);
+						}
+					}
+					return null;
+				}));
+			}
+
+			// The weight can never exceed the larger of the two budgets, whatever the interleaving
+			Future<?> observer = executor.submit(() ->
+			{
+				start.await();
+				while (running.get())
+				{
+					if (cache.getWeight() > LARGE_BUDGET)
+					{
+						overBudget.incrementAndGet();
+					}
+				}
+				return null;
+			});
+
+			start.countDown();
+			for (Future<?> worker : workers)
+			{
+				worker.get(2, TimeUnit.MINUTES);
+			}
+			running.set(false);
+			observer.get(1, TimeUnit.MINUTES);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertEquals(0, overBudget.get());
+		assertEquals(0, wrongValues.get());
+		assertEquals(lookups.get(), cache.getHitCount() + cache.getMissCount());
+		assertTrue(cache.getEvictionCount() > 0);
+		assertTrue(cache.getWeight() <= cache.getMaxWeight());
+
+		// The counters must agree with the entries actually left in the map
+		long cachedWeight = 0;
+		int cachedEntries = 0;
+		for (int key = 0; key < KEYS; key++)
+		{
+			int[] value = cache.get(key);
+			if (value != null)
+			{
+				cachedWeight += value.length;
+				cachedEntries++;
+			}
+		}
+		assertEquals(cachedEntries, cache.size());
+		assertEquals(cachedWeight, cache.getWeight());
+	}
+
+	private static int weightOf(int key)
+	{
+		return 100 + key % 400;
+	}
+
+	private static int[] valueFor(int key)
+	{
+		int[] value = new int[weightOf(key)];
+		value[0] = key;
+		return value;
+	}
+}